@@ -0,0 +1,104 @@
+package patchi.silk.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import patchi.silk.entities.CharacterFlag;
+import patchi.silk.entities.Person;
+import patchi.silk.entities.Road;
+import patchi.silk.entities.Settlement;
+import patchi.silk.foundation.World;
+
+/**
+ * Builds the worlds the benchmarks run on.
+ */
+public final class BenchmarkWorlds {
+
+	private static final World WORLD = World.getMainWorld();
+
+	private BenchmarkWorlds() {}
+
+	/**
+	 * Adds generated people to the current world until it holds the given population.
+	 * People are spread evenly over all settlements and flagged as in {@link patchi.silk.save.PeopleGen}.
+	 *
+	 * @param population Target population
+	 * @param random Random source
+	 */
+	public static void populate(int population, SplittableRandom random) {
+
+		List<Settlement> settlements = WORLD.getSettlementSet();
+		int idCounter = 1_000_000;
+
+		for(int k = WORLD.getPersonSet().size(); k < population; k++) {
+
+			Person P = new Person(Integer.toString(idCounter++));
+			P.setFirstName("Bench");
+			P.setLastName(Integer.toString(k));
+
+			Settlement S = settlements.get(k % settlements.size());
+			P.setLocationID(S.getID());
+
+			if(random.nextBoolean()) P.addFlags(CharacterFlag.FEMALE);
+			if(random.nextBoolean()) P.addFlags(CharacterFlag.DO_TRAVEL);
+			P.addFlags(CharacterFlag.DO_DECISION_TREE);
+
+			WORLD.addPerson(P);
+
+		}
+
+	}
+
+	/**
+	 * Replaces the current world's settlements and roads with a generated grid network.
+	 * Each settlement is joined to its grid neighbours by roads of random length, plus a few random long roads, so every settlement is reachable.
+	 *
+	 * @param size Approximate settlement count, rounded up to a square
+	 * @param random Random source
+	 */
+	public static void generateGrid(int size, SplittableRandom random) {
+
+		int side = (int) Math.ceil(Math.sqrt(size));
+		ArrayList<Settlement> settlements = new ArrayList<>();
+
+		for(int k = 0; k < side * side; k++) {
+			Settlement S = new Settlement("S" + k);
+			S.setName("Settlement " + k);
+			WORLD.addSettlement(S);
+			settlements.add(S);
+		}
+
+		int roadCounter = 0;
+
+		for(int y = 0; y < side; y++) {
+			for(int x = 0; x < side; x++) {
+				int k = y * side + x;
+				if(x + 1 < side) addRoad(roadCounter++, settlements.get(k), settlements.get(k + 1), 5 + random.nextInt(46));
+				if(y + 1 < side) addRoad(roadCounter++, settlements.get(k), settlements.get(k + side), 5 + random.nextInt(46));
+			}
+		}
+
+		//Long roads between random settlements
+		for(int k = 0; k < settlements.size() / 20; k++) {
+			Settlement A = settlements.get(random.nextInt(settlements.size()));
+			Settlement B = settlements.get(random.nextInt(settlements.size()));
+			if(A != B) addRoad(roadCounter++, A, B, 100 + random.nextInt(400));
+		}
+
+		WORLD.updateRoadConnections();
+
+	}
+
+	private static void addRoad(int id, Settlement A, Settlement B, int length) {
+
+		Road R = new Road("R" + id);
+		R.setName("Road " + id);
+		R.setConnectingA(A.getID());
+		R.setConnectingB(B.getID());
+		R.setLength(length);
+		WORLD.addRoad(R);
+
+	}
+
+}
@@ -0,0 +1,56 @@
+package patchi.silk.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import patchi.silk.climate.ClimateGrid;
+
+/**
+ * Cost of one cloud propagation step on square climate grids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClimateBenchmarks {
+
+	/** Grid side length. */
+	@Param({ "21", "101", "501" })
+	public int size;
+
+	private ClimateGrid grid;
+
+	@Setup
+	public void setup() {
+
+		grid = new ClimateGrid(size, size);
+		SplittableRandom random = new SplittableRandom(size);
+
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				grid.getCell(x, y).setCloudSize(random.nextDouble() * 5);
+			}
+		}
+
+	}
+
+	@Benchmark
+	public ClimateGrid cloudPropogate() {
+		return grid.CloudPropogate();
+	}
+
+}
@@ -0,0 +1,78 @@
+package patchi.silk.benchmarks;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import patchi.patchiLib.math.PatchiMath;
+import patchi.silk.foundation.DepartureSampler;
+import patchi.silk.foundation.SunTable;
+
+/**
+ * Cost per person of drawing departure hours for a midnight decision burst, from the alias tables and with the binomial draw they replaced,
+ * {@link PatchiMath#generateBinomialInt(int, double, Random)}.<br>
+ * Confidences are spread over the whole range, as in a generated population. Statistical agreement between the two is checked by
+ * DepartureSamplerTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DepartureBenchmarks {
+
+	/** People deciding at midnight. */
+	private static final int BURST = 100_000;
+
+	private static final int DAY = 200;
+
+	private final DepartureSampler sampler = new DepartureSampler(SunTable.DEFAULT);
+	private final SplittableRandom random = new SplittableRandom(1);
+	private final Random reference = new Random(1);
+	private float[] confidences;
+
+	@Setup
+	public void setup() {
+
+		confidences = new float[BURST];
+		for(int n = 0; n < BURST; n++) confidences[n] = (float) random.nextDouble();
+
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public long tables() {
+
+		long sum = 0;
+		for(int n = 0; n < BURST; n++) sum += sampler.sample(DAY, confidences[n], random);
+		return sum;
+
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public long trials() {
+
+		long sum = 0;
+		for(int n = 0; n < BURST; n++) {
+			double p = DepartureSampler.probability(SunTable.DEFAULT.getSunrise(DAY), SunTable.DEFAULT.getDayLength(DAY), confidences[n]);
+			sum += PatchiMath.generateBinomialInt(DepartureSampler.TRIALS, p, reference);
+		}
+		return sum;
+
+	}
+
+}
@@ -0,0 +1,81 @@
+package patchi.silk.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import patchi.silk.item.Inventory;
+import patchi.silk.item.Item;
+import patchi.silk.item.ItemFactory;
+import patchi.silk.save.InititialiseData;
+
+/**
+ * Cost of creating items from templates, and of adding items to an inventory holding a given number of stacks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemBenchmarks {
+
+	private static final String[] TEMPLATES = { "BAR_METAL", "INGOT_METAL" };
+	private static final String[] MATERIALS = { "METAL_IRON", "METAL_STEEL", "METAL_GOLD" };
+
+	/** Number of distinct stacks in the inventory. */
+	@Param({ "6", "60", "600" })
+	public int stacks;
+
+	private Item[] items;
+	private Inventory inventory;
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+
+		InititialiseData.initialise();
+
+		items = new Item[stacks];
+		inventory = new Inventory();
+
+		for(int k = 0; k < stacks; k++) {
+			items[k] = create(k);
+			inventory.addItem(items[k]);
+		}
+
+	}
+
+	/** Creates one of the template and material combinations, made distinct from the others by a batch tag. */
+	private static Item create(int k) {
+
+		ItemFactory factory = new ItemFactory();
+		factory.buildFromTemplate(TEMPLATES[k % TEMPLATES.length]);
+		factory.addTag("MATERIAL", MATERIALS[(k / TEMPLATES.length) % MATERIALS.length]);
+		factory.addTag("BATCH", Integer.toString(k / (TEMPLATES.length * MATERIALS.length)));
+		return factory.generate();
+
+	}
+
+	@Benchmark
+	public Item createItem() {
+		return create(next++ % stacks);
+	}
+
+	@Benchmark
+	public Inventory addItem() {
+		inventory.addItem(items[next++ % stacks]);
+		return inventory;
+	}
+
+}
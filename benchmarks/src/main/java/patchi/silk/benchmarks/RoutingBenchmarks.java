@@ -0,0 +1,91 @@
+package patchi.silk.benchmarks;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import patchi.silk.foundation.RouteTable;
+import patchi.silk.foundation.World;
+
+/**
+ * Cost of route queries on generated grid road networks.<br>
+ * Compares {@link World#Dijkstra(String, String)} served from a warm route table, an uncached point to point search,
+ * and building one route table row from scratch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmarks {
+
+	private static final World WORLD = World.getMainWorld();
+
+	/** Number of query pairs cycled through. Destinations are limited so the cached rows stay warm. */
+	private static final int PAIRS = 4096;
+	private static final int DESTINATIONS = 64;
+
+	@Param({ "1024", "10000", "40000" })
+	public int settlements;
+
+	private String[] fromIDs = new String[PAIRS];
+	private String[] toIDs = new String[PAIRS];
+	private int[] from = new int[PAIRS];
+	private int[] to = new int[PAIRS];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+
+		WORLD.clear();
+		BenchmarkWorlds.generateGrid(settlements, new SplittableRandom(settlements));
+
+		RouteTable routes = WORLD.getRouteTable();
+		SplittableRandom random = new SplittableRandom(1);
+
+		int[] targets = new int[DESTINATIONS];
+		for(int k = 0; k < DESTINATIONS; k++) targets[k] = random.nextInt(routes.size());
+
+		for(int k = 0; k < PAIRS; k++) {
+			from[k] = random.nextInt(routes.size());
+			to[k] = targets[k % DESTINATIONS];
+			fromIDs[k] = WORLD.getSettlementByHandle(from[k]).getID();
+			toIDs[k] = WORLD.getSettlementByHandle(to[k]).getID();
+		}
+
+		for(int t : targets) routes.getDistance(0, t);
+
+	}
+
+	@Benchmark
+	public ArrayList<String> dijkstra() {
+		int k = next++ & (PAIRS - 1);
+		return WORLD.Dijkstra(fromIDs[k], toIDs[k]);
+	}
+
+	@Benchmark
+	public int[] pointToPoint() {
+		int k = next++ & (PAIRS - 1);
+		return WORLD.getRouteTable().getPathFinder().findPath(from[k], to[k]);
+	}
+
+	@Benchmark
+	public int rowBuild() {
+		int k = next++ & (PAIRS - 1);
+		return new RouteTable(WORLD).getDistance(from[k], to[k]);
+	}
+
+}
@@ -0,0 +1,75 @@
+package patchi.silk.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import patchi.silk.foundation.World;
+import patchi.silk.save.LoadGame;
+import patchi.silk.save.NewGame;
+import patchi.silk.save.SaveGame;
+
+/**
+ * Cost of saving and loading a whole world at several population sizes.<br>
+ * Writes to a scratch save under saves/, removed when the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SaveLoadBenchmarks {
+
+	private static final World WORLD = World.getMainWorld();
+
+	private static final String SAVE_NAME = "jmh-benchmark";
+
+	@Param({ "700", "10000" })
+	public int population;
+
+	@Setup
+	public void setup() {
+
+		WORLD.clear();
+		WORLD.setSeed(population);
+		NewGame.newGame();
+		BenchmarkWorlds.populate(population, WORLD.getRandomStreams().stream("benchmark"));
+		WORLD.advance(48);
+		SaveGame.saveGame(SAVE_NAME);
+
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(new File("saves/" + SAVE_NAME));
+	}
+
+	@Benchmark
+	public void save() {
+		SaveGame.saveGame(SAVE_NAME);
+	}
+
+	@Benchmark
+	public int load() throws FileNotFoundException {
+		WORLD.clear();
+		LoadGame.loadGame(SAVE_NAME);
+		return WORLD.getPersonSet().size();
+	}
+
+}
@@ -0,0 +1,72 @@
+package patchi.silk.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import patchi.silk.foundation.World;
+import patchi.silk.save.NewGame;
+
+/**
+ * Cost of the hour tick, and of a day of {@link World#advance(long)}, at several population sizes and thread counts.<br>
+ * The world is the standard new game world padded out with generated people, seeded by population so every run sees the same world.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TickBenchmarks {
+
+	private static final World WORLD = World.getMainWorld();
+
+	@Param({ "700", "10000", "100000", "1000000" })
+	public int population;
+
+	@Param({ "1", "4" })
+	public int threads;
+
+	@Setup
+	public void setup() {
+
+		WORLD.clear();
+		WORLD.setSeed(population);
+		NewGame.newGame();
+		BenchmarkWorlds.populate(population, WORLD.getRandomStreams().stream("benchmark"));
+		WORLD.setTickThreads(threads);
+
+		//Past the first midnight, so travel is under way
+		WORLD.advance(48);
+
+	}
+
+	@TearDown
+	public void tearDown() {
+		WORLD.setTickThreads(1);
+	}
+
+	@Benchmark
+	public long hourTick() {
+		WORLD.doHourTick();
+		return WORLD.getTick();
+	}
+
+	@Benchmark
+	public long advanceDay() {
+		WORLD.advance(24);
+		return WORLD.getTick();
+	}
+
+}
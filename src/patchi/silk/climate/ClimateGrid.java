@@ -1,3 +1,5 @@
+package patchi.silk.climate;
+
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
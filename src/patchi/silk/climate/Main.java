@@ -1,3 +1,4 @@
+package patchi.silk.climate;
 
 public class Main {
 
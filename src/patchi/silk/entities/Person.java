@@ -2,14 +2,19 @@ package patchi.silk.entities;
 
 import java.util.EnumSet;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 import patchi.patchiLib.math.PatchiMath;
+import patchi.silk.foundation.DepartureSampler;
+import patchi.silk.foundation.PersonStore;
+import patchi.silk.foundation.RandomStreams;
 import patchi.silk.foundation.Time;
 import patchi.silk.foundation.World;
 import patchi.silk.item.Inventory;
 
 /**
- * Generic sentient humanoid entity.
+ * Generic sentient humanoid entity.<br>
+ * Simulation state is held in the world's {@link PersonStore}; this object is a view onto its slot there, plus the data the tick never touches.
  */
 public class Person {
 
@@ -18,6 +23,9 @@ public class Person {
 			
 	/** Reference to global clock */
 	static final Time CLOCK = WORLD.getClock();
+
+	/** Reference to the columnar store backing every Person */
+	static final PersonStore STORE = WORLD.getPersonStore();
 		
 	//############################## PROPERTIES ##############################//
 
@@ -28,27 +36,17 @@ public class Person {
 	/** Character last name. */
 	private String lastName = "null";
 	
-	/** Active location. Refers to settlement or road. */
-	private String location;
-
-	/** Destination settlement list index. */
-	private String destination;	
-	/** The remaining distance to the next settlement. */
-	private int remainingDistance = 0;		
-	/** The hours remaining until an Character begins travelling. */
-	private int departureHours = 0;
-	/** Confidence modifier. Double between 0.0 and 1.0. Affects departure time. Currently unimplemented. */
-	private float confidence = 1.0f;
+	/** Slot in the person store. Holds location, destination, travel state, confidence and flags. */
+	private final int slot;
 	
 	//############################## OTHER ##############################//
 	
 	private final Inventory inventory = new Inventory();
 	
-	private EnumSet<CharacterFlag> flags = EnumSet.noneOf(CharacterFlag.class);
-	
 	public Person(String id) {
 		
 		this.id = id;
+		this.slot = STORE.allocate(this);
 		
 	}
 	
@@ -66,9 +64,10 @@ public class Person {
 	public Person(String id, String firstName, String lastName, String location){
 
 		this.id = id;
+		this.slot = STORE.allocate(this);
 		
-		this.location = location;
-		WORLD.getSettlementByID(location).addCharacter(this);
+		//Counted into the settlement once added to the world
+		STORE.setLocation(slot, WORLD.getSettlementByID(location).getHandle());
 		
 		this.firstName = firstName;
 		this.lastName = lastName;
@@ -78,16 +77,16 @@ public class Person {
 	public Person(String[] in) {
 		
 		this.id = in[0];
+		this.slot = STORE.allocate(this);
 		
 		this.firstName = in[1];
 		this.lastName = in[2];
 		
-		this.location = in[4];
-		WORLD.getSettlementByID(location).addCharacter(this);
+		STORE.setLocation(slot, WORLD.getSettlementByID(in[4]).getHandle());
 		
-		if(Integer.parseInt(in[3]) == 0) flags.add(CharacterFlag.FEMALE);
-		if(new Random().nextBoolean()) flags.add(CharacterFlag.DO_TRAVEL);
-		flags.add(CharacterFlag.DO_DECISION_TREE);
+		if(Integer.parseInt(in[3]) == 0) addFlags(CharacterFlag.FEMALE);
+		if(WORLD.getRandomStreams().stream(RandomStreams.PEOPLE, STORE.getRandomKey(slot)).nextBoolean()) addFlags(CharacterFlag.DO_TRAVEL);
+		addFlags(CharacterFlag.DO_DECISION_TREE);
 		
 	}
 	
@@ -98,57 +97,43 @@ public class Person {
 	
 	/** Initiates Character travel state. Sets travel flag, and handles setting of route length and destination. Automatically identifies route to the destination.  */
 	public void beginTravel() {
-
-		flags.remove(CharacterFlag.PREP_TRAVEL);
-		departureHours = 0;
-		flags.add(CharacterFlag.TRAVELLING);	
-		Road path = WORLD.getSettlementByID(location).getRoadTo(destination);
-		remainingDistance = path.getLength();
-		WORLD.getSettlementByID(location).removeCharacter(this);
-		location = path.getID();
+		STORE.beginTravel(slot);
 	}
 
 	/**
-	 * Advance travel.<br>
-	 * Decreases distance to next settlement by 40km. Automatically handles arrival at settlement if remaining distance decreases.
+	 * Generates a departure hour for this Character.
 	 *
-	 * @return False if destination is reached, else true.
+	 * @param RANDOM Project wide Math.Random object
+	 * @return Generated hour of departure.
 	 */
-	public boolean advanceTravel() {
-
-		if(isTravelling()) {
-			
-			remainingDistance = remainingDistance - 6;
-
-			if(remainingDistance <= 0) {
-				remainingDistance = 0;
-				flags.remove(CharacterFlag.TRAVELLING);
-				location = destination;
-				WORLD.getSettlementByID(location).addCharacter(this);
-			}
-		}
+	public int generateDepartureHour(Random RANDOM) {
 
-		return isTravelling();
+		int departure = PatchiMath.generateBinomialInt(23,getDepartureProbability(),RANDOM);
+		return departure;
 
 	}
 
 	/**
-	 * Generates a departure hour for this Character.
+	 * Generates a departure hour for this Character from an independent random stream.
+	 * Drawn from the world's precomputed tables for today, with the same distribution as {@link #generateDepartureHour(Random)}.
 	 *
-	 * @param RANDOM Project wide Math.Random object
+	 * @param random Stream owned by this Character
 	 * @return Generated hour of departure.
 	 */
-	public int generateDepartureHour(Random RANDOM) {
+	public int generateDepartureHour(SplittableRandom random) {
 
-		double sunrise = CLOCK.getSunriseTime();
-		double daylength = CLOCK.getCurrentDayLength();
-		
-		double base = sunrise + 1;
-		double confidenceMod = ((1 - confidence) / 5.0) * daylength;
-		double finalProb = (base + confidenceMod) / 23.0;
-		
-		int departure = PatchiMath.generateBinomialInt(23,finalProb,RANDOM);
-		return departure;
+		return WORLD.getDepartureSampler().sample(CLOCK.getCurrentDayCount(), getConfidence(), random);
+
+	}
+
+	/**
+	 * Returns the per-hour probability used to generate the departure hour. Depends on the day of the year and confidence.
+	 *
+	 * @return Departure probability
+	 */
+	public double getDepartureProbability() {
+
+		return DepartureSampler.probability(CLOCK.getSunriseTime(), CLOCK.getCurrentDayLength(), getConfidence());
 
 	}
 
@@ -167,7 +152,7 @@ public class Person {
 	 */
 	public void setRemainingDistance(int d) {
 
-		remainingDistance = d;
+		STORE.setRemainingDistance(slot, d);
 
 	}
 	
@@ -178,7 +163,7 @@ public class Person {
 	 */
 	public int getRemainingDistance() {
 
-		return remainingDistance;
+		return STORE.getRemainingDistance(slot);
 
 	}
 	
@@ -206,7 +191,7 @@ public class Person {
 	 * @return doTravel flag state
 	 */
 	public boolean getDoTravel() {
-		return flags.contains(CharacterFlag.DO_TRAVEL);
+		return STORE.hasFlags(slot, PersonStore.DO_TRAVEL);
 	}
 
 	/**
@@ -215,7 +200,7 @@ public class Person {
 	 * @param h Hours from set time
 	 */
 	public void setDepartureHours(int h) {
-		departureHours = h;
+		STORE.setDepartureHours(slot, h);
 	}
 
 	/**
@@ -224,13 +209,12 @@ public class Person {
 	 * @return Remaining hours until departure
 	 */
 	public int getDepartureHours() {
-		return departureHours;
+		return STORE.getDepartureHours(slot);
 	}
 
 	/** decrements the departureHours property */
 	public void decrementDepartureHours() {
-		departureHours--
-		;
+		STORE.setDepartureHours(slot, STORE.getDepartureHours(slot) - 1);
 	}
 
 
@@ -240,7 +224,7 @@ public class Person {
 	 * @return prepTravel flag state
 	 */
 	public boolean getPrepTravel() {
-		return flags.contains(CharacterFlag.PREP_TRAVEL);
+		return STORE.hasFlags(slot, PersonStore.PREP_TRAVEL);
 	}
 
 	/**
@@ -259,7 +243,7 @@ public class Person {
 	 */
 	public String locationName() {
 		String locationName;
-		locationName = (isTravelling()) ? WORLD.getRoadByID(location).getName() : WORLD.getSettlementByID(location).getName();
+		locationName = (isTravelling()) ? WORLD.getRoadByHandle(getLocationHandle()).getName() : WORLD.getSettlementByHandle(getLocationHandle()).getName();
 		return locationName;
 	}
 	
@@ -270,7 +254,7 @@ public class Person {
 	 */
 	public void setConfidence(float d) {
 		d = (float) PatchiMath.cutDoubleToRange(d, 0.0, 1.0);
-		confidence = d;
+		STORE.setConfidence(slot, d);
 	}
 
 	/**
@@ -279,47 +263,130 @@ public class Person {
 	 * @return confidence coefficient
 	 */
 	public float getConfidence() {
-		return confidence;
+		return STORE.getConfidence(slot);
 	}
 
 	/**
-	 * Returns a reference to the destination settlement
+	 * Returns the ID of the destination settlement
 	 * 
-	 * @return Settlement reference
+	 * @return Settlement ID. Null if there is no destination.
 	 */
 	public String getDestination() {
-		return destination;
+		int destination = getDestinationHandle();
+		return (destination < 0) ? null : WORLD.getSettlementByHandle(destination).getID();
 	}
 
 	/** Sets the destination
-	 * @param i Destination settlement reference
+	 * @param dest Destination settlement ID
 	 */
 	public void setDestination(String dest) {
-		destination = dest;
+		STORE.setDestination(slot, WORLD.getSettlementByID(dest).getHandle());
+	}
+	
+	public int getDestinationHandle() {
+		return STORE.getDestination(slot);
 	}
 	
+	public void setDestinationHandle(int dest) {
+		STORE.setDestination(slot, dest);
+	}
+
+	/**
+	 * Plans a journey to any reachable settlement. The destination becomes the first stop on the way.
+	 *
+	 * @param dest Final destination settlement ID
+	 */
+	public void planJourney(String dest) {
+		STORE.planJourney(slot, WORLD.getSettlementByID(dest).getHandle());
+	}
+
+	/**
+	 * Returns the ID of the settlement the current journey ends at.
+	 *
+	 * @return Settlement ID. Null if there is no destination.
+	 */
+	public String getFinalDestination() {
+		int destination = STORE.getFinalDestination(slot);
+		return (destination < 0) ? null : WORLD.getSettlementByHandle(destination).getID();
+	}
+
+	/**
+	 * Returns the IDs of the stops after the destination still to be reached, ending at the final destination.
+	 *
+	 * @return Settlement IDs. Empty on a single leg.
+	 */
+	public String[] getOnwardStops() {
+
+		int[] stops = STORE.getOnwardStops(slot);
+		String[] ids = new String[stops.length];
+		for(int k = 0; k < stops.length; k++) ids[k] = WORLD.getSettlementByHandle(stops[k]).getID();
+		return ids;
+
+	}
+
+	/**
+	 * Sets the stops after the destination on a journey under way.
+	 *
+	 * @param ids Settlement IDs in order, ending at the final destination. Empty for a single leg.
+	 */
+	public void setOnwardStops(String[] ids) {
+
+		int[] stops = new int[ids.length];
+		for(int k = 0; k < ids.length; k++) stops[k] = WORLD.getSettlementByID(ids[k]).getHandle();
+		STORE.setOnwardStops(slot, stops);
+
+	}
+	
+	/**
+	 * Returns the ID of the current location. A road ID while travelling, otherwise a settlement ID.
+	 * 
+	 * @return Location ID
+	 */
 	public String getLocationID() {
-		return location;
+		int location = getLocationHandle();
+		return isTravelling() ? WORLD.getRoadByHandle(location).getID() : WORLD.getSettlementByHandle(location).getID();
 	}
 	
+	/**
+	 * Sets the current location. Resolved as a road ID if the TRAVELLING flag is set, otherwise as a settlement ID.
+	 * 
+	 * @param location Location ID
+	 */
 	public void setLocationID(String location) {
-		this.location = location;
+		setLocationHandle(isTravelling() ? WORLD.getRoadByID(location).getHandle() : WORLD.getSettlementByID(location).getHandle());
+	}
+	
+	public int getLocationHandle() {
+		return STORE.getLocation(slot);
+	}
+	
+	public void setLocationHandle(int location) {
+		STORE.setLocation(slot, location);
+	}
+	
+	/**
+	 * Returns the slot backing this Person in the world's person store.
+	 *
+	 * @return Store slot
+	 */
+	public int getSlot() {
+		return slot;
 	}
 	
 	public boolean getFemale() {
-		return flags.contains(CharacterFlag.FEMALE);
+		return STORE.hasFlags(slot, PersonStore.FEMALE);
 	}
 
 	public boolean getDoDecisionTree() {
-		return flags.contains(CharacterFlag.DO_DECISION_TREE);
+		return STORE.hasFlags(slot, PersonStore.DO_DECISION_TREE);
 	}
 	
 	public boolean isTravelling() {
-		return flags.contains(CharacterFlag.TRAVELLING);
+		return STORE.hasFlags(slot, PersonStore.TRAVELLING);
 	}
 
 	public void setPrepTravel() {
-		flags.add(CharacterFlag.PREP_TRAVEL);
+		STORE.addFlags(slot, PersonStore.PREP_TRAVEL);
 	}
 
 	public String getName() {
@@ -331,14 +398,23 @@ public class Person {
 		
 		for(CharacterFlag F : f) {
 			
-			flags.add(F);
+			STORE.addFlags(slot, PersonStore.mask(F));
 			
 		}
 		
 	}
 	
+	/**
+	 * Returns the set flags. The set is a copy; use {@link #addFlags(CharacterFlag...)} to change them.
+	 *
+	 * @return Copy of the flag set
+	 */
 	public EnumSet<CharacterFlag> getFlags () {
 		
+		EnumSet<CharacterFlag> flags = EnumSet.noneOf(CharacterFlag.class);
+		for(CharacterFlag F : CharacterFlag.values()) {
+			if(STORE.hasFlags(slot, PersonStore.mask(F))) flags.add(F);
+		}
 		return flags;
 		
 	}
@@ -1,5 +1,10 @@
 package patchi.silk.entities;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import patchi.silk.foundation.MemberSet;
+import patchi.silk.foundation.PersonStore;
 import patchi.silk.foundation.World;
 
 /**
@@ -13,24 +18,29 @@ public class Road {
 	/** Road ID. Corresponds to list index. */
 	private String id;
 		
-	/** Connecting settlements */
-	private String connectingA;
-	private String connectingB;
+	/** Dense handle assigned on registration with the world. */
+	private int handle = -1;
+		
+	/** Handles of the connecting settlements */
+	private int connectingA = -1;
+	private int connectingB = -1;
 	
 	/** Road name. */
 	private String name;
 	
 	/** Road length. */
 	private int length;
+
+	/** People travelling towards each end, as person slots. Maintained by the {@link PersonStore}. */
+	private final MemberSet towardsA = new MemberSet();
+	private final MemberSet towardsB = new MemberSet();
 	
 	public Road(String[] in) {
 		
 		id = in[0];
 		name = in[1];
-		connectingA = in[2].split(";")[0];
-		WORLD.getSettlementByID(connectingA).getRoads().add(this);
-		connectingB = in[2].split(";")[1];
-		WORLD.getSettlementByID(connectingB).getRoads().add(this);
+		setConnectingA(in[2].split(";")[0]);
+		setConnectingB(in[2].split(";")[1]);
 		
 	}
 	
@@ -48,6 +58,19 @@ public class Road {
 		return id;	
 	}
 	
+	/**
+	 * Returns the road handle.
+	 *
+	 * @return Handle
+	 */
+	public int getHandle() {
+		return handle;
+	}
+
+	public void setHandle(int handle) {
+		this.handle = handle;
+	}
+	
 	/**
 	 * Returns the road name.
 	 *
@@ -71,24 +94,144 @@ public class Road {
 		
 		return length;
 	}
+
+	/**
+	 * Returns the number of people travelling along the road.
+	 *
+	 * @return Traveller count
+	 */
+	public int getTravellers() {
+		return WORLD.getCensus().getRoadTravellers(handle);
+	}
+
+	/**
+	 * Returns the people travelling towards one end of the road, as person slots. Kept up to date by the world as people depart and arrive.
+	 *
+	 * @param settlement Handle of the settlement they are heading for. Anything other than the second connecting settlement means the first.
+	 * @return Traveller set
+	 */
+	public MemberSet getTravellersTowards(int settlement) {
+		return (settlement == connectingB) ? towardsB : towardsA;
+	}
+
+	/**
+	 * Returns a copy of the people travelling along the road in both directions, for display. Unaffected by later departures and arrivals.
+	 *
+	 * @return Travellers
+	 */
+	public List<Person> getTravellerList() {
+
+		PersonStore store = WORLD.getPersonStore();
+		List<Person> out = new ArrayList<>(towardsA.size() + towardsB.size());
+		for(int slot : towardsA.toArray()) out.add(store.getPerson(slot));
+		for(int slot : towardsB.toArray()) out.add(store.getPerson(slot));
+		return out;
+
+	}
+
+	/**
+	 * Returns how many travellers are on each stretch of the road, for congestion statistics. Visits only the people on this road.
+	 *
+	 * @param segments Number of equal stretches to divide the road into, counted from the first connecting settlement
+	 * @return Traveller count per stretch
+	 */
+	public int[] getOccupancy(int segments) {
+
+		if(segments < 1) throw new IllegalArgumentException("At least one segment is needed");
+
+		PersonStore store = WORLD.getPersonStore();
+		int[] counts = new int[segments];
+		towardsA.forEach(slot -> counts[segment(store.getRoadPosition(slot), segments)]++);
+		towardsB.forEach(slot -> counts[segment(store.getRoadPosition(slot), segments)]++);
+		return counts;
+
+	}
+
+	private int segment(int position, int segments) {
+		return (length <= 0) ? 0 : Math.min(segments - 1, (int) ((long) position * segments / length));
+	}
 	
+	/**
+	 * Sets the length of the road. Once the road is in the world, its road graph and route table are rebuilt on next use.
+	 *
+	 * @param length Road length
+	 */
 	public void setLength(int length) {
 		this.length = length;
+		networkChanged();
 	}
 
+	/**
+	 * Returns the ID of the first connecting settlement.
+	 *
+	 * @return Settlement ID
+	 */
 	public String getConnectingA() {
-		return connectingA;
+		return WORLD.getSettlementByHandle(connectingA).getID();
 	}
 
+	/**
+	 * Sets the first connecting settlement. The settlement must already be registered with the world.
+	 * Once the road is in the world, its road graph and route table are rebuilt on next use.
+	 *
+	 * @param id Settlement ID
+	 * @throws IllegalStateException if anyone is travelling along the road
+	 */
 	public void setConnectingA(String id) {
-		connectingA = id;
+		int h = WORLD.getSettlementByID(id).getHandle();
+		checkEmpty();
+		connectingA = h;
+		networkChanged();
 	}
 	
+	/**
+	 * Returns the ID of the second connecting settlement.
+	 *
+	 * @return Settlement ID
+	 */
 	public String getConnectingB() {
-		return connectingB;
+		return WORLD.getSettlementByHandle(connectingB).getID();
 	}
 	
+	/**
+	 * Sets the second connecting settlement. The settlement must already be registered with the world.
+	 * Once the road is in the world, its road graph and route table are rebuilt on next use.
+	 *
+	 * @param id Settlement ID
+	 * @throws IllegalStateException if anyone is travelling along the road
+	 */
 	public void setConnectingB(String id) {
-		connectingB = id;
+		int h = WORLD.getSettlementByID(id).getHandle();
+		checkEmpty();
+		connectingB = h;
+		networkChanged();
+	}
+
+	/** Travellers are filed by the end they are heading for, so the ends cannot move under them. */
+	private void checkEmpty() {
+		if(getTravellers() > 0) throw new IllegalStateException("Cannot move the ends of road " + id + " while " + getTravellers() + " people travel along it");
+	}
+
+	/** Drops the world's cached adjacency and routes if this road is part of it. */
+	private void networkChanged() {
+		if(handle >= 0) WORLD.invalidateRoadNetwork();
+	}
+
+	public int getConnectingAHandle() {
+		return connectingA;
+	}
+
+	public int getConnectingBHandle() {
+		return connectingB;
+	}
+
+	/**
+	 * Returns the handle of the settlement at the opposite end of the road.
+	 *
+	 * @param from Handle of one connecting settlement
+	 * @return Handle of the other connecting settlement
+	 */
+	public int getOtherEnd(int from) {
+		return (from == connectingA) ? connectingB : connectingA;
 	}
 }
@@ -1,11 +1,13 @@
 package patchi.silk.entities;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
-import patchi.patchiLib.util.LimitedLinkedList;
+import patchi.silk.foundation.MemberSet;
+import patchi.silk.foundation.PersonStore;
+import patchi.silk.foundation.PopulationHistory;
+import patchi.silk.foundation.RoadGraph;
+import patchi.silk.foundation.TimeSeries;
 import patchi.silk.foundation.World;
 
 /**
@@ -19,29 +21,23 @@ public class Settlement {
 	/** Reference to settlement dataset ArrayList*/
 	public static final List<Settlement> SETTLEMENTS = WORLD.getSettlementSet();
 
-	/** Arraylist of connecting roads */
-	private ArrayList<Road> connectingRoads = new ArrayList<Road>();
-
 	/** Settlement ID.*/
 	private final String id;
 
+	/** Dense handle assigned on registration with the world. */
+	private int handle = -1;
+
 	/** Name of the settlement. */
 	private String name;
 
-	private List<Person> currentInhabitants = new LinkedList<Person>();
-	private int population;
+	/** People currently here, as person slots. Maintained by the {@link PersonStore}. */
+	private final MemberSet currentInhabitants = new MemberSet();
 	
-	private static int POPULATION_TRACKING_SIZE = 30;
-	private LimitedLinkedList<Integer> dailyPopulation = new LimitedLinkedList<>(POPULATION_TRACKING_SIZE);
-	private LimitedLinkedList<Integer> monthlyPopulation = new LimitedLinkedList<>(POPULATION_TRACKING_SIZE);
-	private int monthRunningTot = 0;
-	private int monthN = 0;
+	/** Samples retained by the population history of settlements created from now on: hours, days, months, years. */
+	private static int[] HISTORY_RETENTION = { PopulationHistory.DEFAULT_HOURS, PopulationHistory.DEFAULT_DAYS, PopulationHistory.DEFAULT_MONTHS, PopulationHistory.DEFAULT_YEARS };
 
+	private final PopulationHistory history = new PopulationHistory(HISTORY_RETENTION[0], HISTORY_RETENTION[1], HISTORY_RETENTION[2], HISTORY_RETENTION[3]);
 
-	/**Parameters used in executing dijkstra's algorithm */
-	protected int workingValue;
-	protected int finalValue;
-	protected boolean done;
 
 	/**
 	 * Instantiates a new settlement.
@@ -84,13 +80,33 @@ public class Settlement {
 		return id;
 	}
 
+	/**
+	 * Returns the settlement handle.
+	 *
+	 * @return Handle
+	 */
+	public int getHandle() {
+		return handle;
+	}
+
+	public void setHandle(int handle) {
+		this.handle = handle;
+	}
+
+	/**
+	 * Returns the IDs of the settlements one road away, in road ID order. Builds a new list, so is meant for display;
+	 * the tick reads the {@link RoadGraph} directly.
+	 *
+	 * @return Neighbouring settlement IDs
+	 */
 	public ArrayList<String> getConnectedSettlements() {
-		
-		ArrayList<String> C = new ArrayList<>();
-		for(Road R : connectingRoads) {
-			if(!R.getConnectingA().equals(this.id)) C.add(R.getConnectingA());
-			else C.add(R.getConnectingB());
-		}				
+
+		RoadGraph graph = WORLD.getRoadGraph();
+
+		ArrayList<String> C = new ArrayList<>(graph.getDegree(handle));
+		for(int e = graph.getStart(handle); e < graph.getEnd(handle); e++) {
+			C.add(WORLD.getSettlementByHandle(graph.getNeighbour(e)).getID());
+		}
 		return C;
 
 	}
@@ -102,147 +118,173 @@ public class Settlement {
 	 * @return Road connecting the two settlements. Null if unconnected.
 	 */
 	public Road getRoadTo(String s){
+		return getRoadTo(WORLD.getSettlementByID(s).getHandle());
+	}
 
-		//Check each connecting road until the appropriate connection is found
-		for(Road r : connectingRoads) {
-			if(r.getConnectingA().equals(s) || r.getConnectingB().equals(s)) {
-				return r;
-			}
-		}
+	/**
+	 * Returns the road to the given settlement.
+	 *
+	 * @param h Handle of the destination settlement
+	 * @return Road connecting the two settlements. Null if unconnected.
+	 */
+	public Road getRoadTo(int h){
 
-		return null;
-	}
+		RoadGraph graph = WORLD.getRoadGraph();
+		int e = graph.findEdge(handle, h);
 
-	/** Returns arraylist of connected roads */
-	public ArrayList<Road> getRoads() {
-		return connectingRoads;
+		return (e < 0) ? null : WORLD.getRoadByHandle(graph.getRoad(e));
 	}
 
-	//----------------------------------Dijkstra methods--------------------------------------------//
+	/**
+	 * Returns the roads meeting here, in road ID order. Builds a new list, so is meant for display.
+	 *
+	 * @return Connecting roads
+	 */
+	public List<Road> getRoads() {
 
-	public void purge() {
-		workingValue = Integer.MAX_VALUE;
-		done = false;
-	}
+		RoadGraph graph = WORLD.getRoadGraph();
 
-	public int getWorkingValue() {
-		return workingValue;
-	}
+		List<Road> roads = new ArrayList<>(graph.getDegree(handle));
+		for(int e = graph.getStart(handle); e < graph.getEnd(handle); e++) {
+			roads.add(WORLD.getRoadByHandle(graph.getRoad(e)));
+		}
+		return roads;
 
-	public void setWorkingValue(int workingValue) {
-		this.workingValue = workingValue;
 	}
 
-	public int getFinalValue() {
-		return finalValue;
+	/**
+	 * Returns the people currently here, as person slots. Kept up to date by the world as people arrive and depart.
+	 *
+	 * @return Inhabitant set
+	 */
+	public MemberSet getInhabitants() {
+		return currentInhabitants;
 	}
 
-	public void setFinalValue(int finalValue) {
-		this.finalValue = finalValue;
-	}
+	/**
+	 * Returns a copy of the people currently here, for display. Unaffected by later arrivals and departures.
+	 *
+	 * @return Inhabitants
+	 */
+	public List<Person> getInhabitantList() {
+
+		PersonStore store = WORLD.getPersonStore();
+		int[] slots = currentInhabitants.toArray();
+		List<Person> out = new ArrayList<>(slots.length);
+		for(int slot : slots) out.add(store.getPerson(slot));
+		return out;
 
-	public boolean getDone() {
-		return done;
 	}
 
-	public void setDone(boolean done) {
-		this.done = done;
+	public int getCurrentPopulation() {
+		return WORLD.getCensus().getSettlementPopulation(handle);
 	}
 
-	//--------------------------------------------END----------------------------------------------//
+	/**
+	 * Returns the number of people here with a flag set, such as those preparing to travel.
+	 *
+	 * @param flag Flag
+	 * @return Count
+	 */
+	public int getPopulation(CharacterFlag flag) {
+		return WORLD.getCensus().getSettlementCount(handle, flag);
+	}
 
-	public void addCharacter(Person A) {
-		currentInhabitants.add(A);
-		population++;
+	/**
+	 * Sets how much population history settlements created from now on retain.
+	 *
+	 * @param hours Hourly samples. 0 to not track hours at all.
+	 * @param days Daily samples
+	 * @param months Monthly samples
+	 * @param years Yearly samples
+	 */
+	public static void setHistoryRetention(int hours, int days, int months, int years) {
+		HISTORY_RETENTION = new int[] { hours, days, months, years };
 	}
 
-	public void removeCharacter(Person A) {
-		currentInhabitants.remove(A);
-		population--;
+	/**
+	 * Returns whether settlements created from now on track hourly population.
+	 *
+	 * @return True if hourly samples are retained
+	 */
+	public static boolean isHourlyHistory() {
+		return HISTORY_RETENTION[0] > 0;
 	}
 
-	public int getCurrentPopulation() {
-		return population;
+	/**
+	 * Returns the population history.
+	 *
+	 * @return History
+	 */
+	public PopulationHistory getHistory() {
+		return history;
 	}
 
-	public void setPopulation(int pop) {
-		this.population = pop;
+	/**
+	 * Records the current population for one or more hours, if hourly history is kept.
+	 *
+	 * @param hours Hours the population held for
+	 */
+	public void writeHourlyPop(long hours) {
+		if(history.isHourly()) history.recordHours(getCurrentPopulation(), hours);
 	}
 
 	public int writeDailyPop() {
 
-		dailyPopulation.add(population);
-		monthRunningTot += population;
-		monthN++;
+		int population = getCurrentPopulation();
+		history.recordDay(population);
 		return population;
 
 	}
 
-	public List<Integer> getDailyPop() {
-		return dailyPopulation;
+	public TimeSeries getDailyPop() {
+		return history.getDaily();
 	}
 
 	public int writeMonthlyPop() {
 
-		monthlyPopulation.add(Math.floorDiv(monthRunningTot, monthN));
-		monthRunningTot = 0;
-		monthN = 0;
-		return population;
+		history.endMonth();
+		return getCurrentPopulation();
 
 	}
 
-	public List<Integer> getMonthlyPop() {
-		return monthlyPopulation;
+	public TimeSeries getMonthlyPop() {
+		return history.getMonthly();
 	}
 
-	public String getMonthlyPopString() {
+	public int writeYearlyPop() {
 
-		String s = monthRunningTot + ";" +  monthN + ";";
+		history.endYear();
+		return getCurrentPopulation();
 
-		Iterator<Integer> monthly = getMonthlyPop().iterator();
-		while(monthly.hasNext()) {
-			Integer I = monthly.next();
-			s = s + (I.toString());
-			if(monthly.hasNext()) {
-				s = s + ",";
-			}
-		}
+	}
 
-		return s;
+	public TimeSeries getYearlyPop() {
+		return history.getYearly();
+	}
 
+	public String getDailyPopString() {
+		return history.getDaily().toString();
 	}
 
-	public void setDailyPop(LimitedLinkedList<Integer> in) {
-		dailyPopulation = in;
+	public String getMonthlyPopString() {
+		return history.getMonthlyString();
 	}
 
-	public void parseDailyPopString(String in) {
+	public String getYearlyPopString() {
+		return history.getYearlyString();
+	}
 
-		String[] stringList = in.split(",");
-		List<Integer> popList = new LinkedList<Integer>();
-		for(String str : stringList) {
-			popList.add(Integer.parseInt(str));
-		}
-		
-		dailyPopulation = new LimitedLinkedList<Integer>(popList, POPULATION_TRACKING_SIZE);
-		
+	public void parseDailyPopString(String in) {
+		history.getDaily().parseCSV(in);
 	}
 
 	public void parseMonthlyPopString(String in) {
+		history.parseMonthlyString(in);
+	}
 
-		String[] init = in.split(";");
-		
-		monthRunningTot = Integer.parseInt(init[0]);
-		monthN = Integer.parseInt(init[1]);
-		
-		String[] stringList = init[2].split(",");
-		List<Integer> popList = new LinkedList<Integer>();
-		for(String str : stringList) {
-			popList.add(Integer.parseInt(str));
-		}
-		
-		monthlyPopulation = new LimitedLinkedList<Integer>(popList, POPULATION_TRACKING_SIZE);
-		
+	public void parseYearlyPopString(String in) {
+		history.parseYearlyString(in);
 	}
 
 }
@@ -0,0 +1,110 @@
+package patchi.silk.foundation;
+
+import java.util.Arrays;
+
+import patchi.silk.entities.CharacterFlag;
+
+/**
+ * Head counts of the people in each settlement and on each road, with a breakdown by flag.<br>
+ * Kept up to date by the {@link PersonStore} as people are added, arrive, depart or change flags, so reading a count never scans anyone.
+ */
+public class Census {
+
+	private static final int FLAGS = CharacterFlag.values().length;
+
+	/** Counts per location: the total, then one count per flag ordinal. */
+	private static final int STRIDE = FLAGS + 1;
+
+	/** Settlement counts, STRIDE entries per settlement handle. */
+	private int[] settlements = new int[64 * STRIDE];
+
+	/** Road counts, STRIDE entries per road handle. */
+	private int[] roads = new int[64 * STRIDE];
+
+	/**
+	 * Adds or removes one person's contribution.
+	 *
+	 * @param location Location handle. A road if the flags include travelling, otherwise a settlement. Nothing is counted if negative.
+	 * @param flags Flag bitmask
+	 * @param sign 1 to add, -1 to remove
+	 */
+	void count(int location, int flags, int sign) {
+
+		if(location < 0) return;
+
+		int[] counts;
+		if((flags & PersonStore.TRAVELLING) != 0) {
+			if((location + 1) * STRIDE > roads.length) roads = grow(roads, location);
+			counts = roads;
+		} else {
+			if((location + 1) * STRIDE > settlements.length) settlements = grow(settlements, location);
+			counts = settlements;
+		}
+
+		int base = location * STRIDE;
+		counts[base] += sign;
+
+		for(int f = flags, bit = 0; f != 0; f >>>= 1, bit++) {
+			if((f & 1) != 0) counts[base + 1 + bit] += sign;
+		}
+
+	}
+
+	private static int[] grow(int[] counts, int location) {
+		return Arrays.copyOf(counts, Math.max(counts.length * 2, (location + 1) * STRIDE));
+	}
+
+	/** Resets every count to zero. */
+	void clear() {
+		Arrays.fill(settlements, 0);
+		Arrays.fill(roads, 0);
+	}
+
+	/**
+	 * Returns the number of people in a settlement.
+	 *
+	 * @param settlement Settlement handle
+	 * @return Population
+	 */
+	public int getSettlementPopulation(int settlement) {
+		return read(settlements, settlement, 0);
+	}
+
+	/**
+	 * Returns the number of people in a settlement with a flag set.
+	 *
+	 * @param settlement Settlement handle
+	 * @param flag Flag
+	 * @return Count
+	 */
+	public int getSettlementCount(int settlement, CharacterFlag flag) {
+		return read(settlements, settlement, 1 + flag.ordinal());
+	}
+
+	/**
+	 * Returns the number of people travelling along a road.
+	 *
+	 * @param road Road handle
+	 * @return Traveller count
+	 */
+	public int getRoadTravellers(int road) {
+		return read(roads, road, 0);
+	}
+
+	/**
+	 * Returns the number of people travelling along a road with a flag set.
+	 *
+	 * @param road Road handle
+	 * @param flag Flag
+	 * @return Count
+	 */
+	public int getRoadCount(int road, CharacterFlag flag) {
+		return read(roads, road, 1 + flag.ordinal());
+	}
+
+	private static int read(int[] counts, int location, int offset) {
+		int index = location * STRIDE + offset;
+		return (location >= 0 && index < counts.length) ? counts[index] : 0;
+	}
+
+}
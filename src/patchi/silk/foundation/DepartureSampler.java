@@ -0,0 +1,215 @@
+package patchi.silk.foundation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws departure hours in constant time from precomputed alias tables.<br>
+ * A departure hour is the number of successes in {@link #TRIALS} trials, each with a probability set by the sun times and the person's confidence.
+ * Rather than drawing every trial, there is one alias table per confidence bucket, so a draw is one random number and two array reads.
+ * Confidence is rounded to the nearest of {@link #CONFIDENCE_BUCKETS} evenly spaced values, which include 0 and 1 exactly.
+ * Only the tables for the day last sampled are kept. They are built the first time a day is sampled, once per simulated day.
+ */
+public class DepartureSampler {
+
+	/** Trials per departure hour. Departure hours run from 0 to TRIALS. */
+	public static final int TRIALS = 23;
+
+	/** Possible departure hours. */
+	private static final int OUTCOMES = TRIALS + 1;
+
+	/** Confidence values tabulated per day. */
+	public static final int CONFIDENCE_BUCKETS = 1025;
+
+	private final SunTable sun;
+
+	/** Tables for the day last sampled. Null until first used. */
+	private volatile DayTable current;
+
+	/**
+	 * Instantiates a sampler for a climate zone.
+	 *
+	 * @param sun Sun times the departure probability depends on
+	 */
+	public DepartureSampler(SunTable sun) {
+		this.sun = sun;
+	}
+
+	public SunTable getSunTable() {
+		return sun;
+	}
+
+	/**
+	 * Returns the probability of each departure trial succeeding.
+	 *
+	 * @param sunrise Sunrise in decimal hours
+	 * @param dayLength Day length in hours
+	 * @param confidence Confidence between 0.0 and 1.0
+	 * @return Per-trial probability
+	 */
+	public static double probability(double sunrise, double dayLength, double confidence) {
+
+		double base = sunrise + 1;
+		double confidenceMod = ((1 - confidence) / 5.0) * dayLength;
+		return (base + confidenceMod) / TRIALS;
+
+	}
+
+	/**
+	 * Returns the per-trial probability the tables use for a day and confidence, after rounding the confidence to its bucket.
+	 *
+	 * @param day Day of the year, starting at 0
+	 * @param confidence Confidence between 0.0 and 1.0
+	 * @return Per-trial probability
+	 */
+	public double getProbability(int day, float confidence) {
+		return probability(sun.getSunrise(day), sun.getDayLength(day), bucketConfidence(bucket(confidence)));
+	}
+
+	/**
+	 * Draws a departure hour.
+	 *
+	 * @param day Day of the year, starting at 0
+	 * @param confidence Confidence between 0.0 and 1.0
+	 * @param random Random stream. Exactly one double is drawn.
+	 * @return Departure hour, from 0 to {@link #TRIALS}
+	 */
+	public int sample(int day, float confidence, SplittableRandom random) {
+		return getDayTable(day).sample(confidence, random);
+	}
+
+	/**
+	 * Returns the tables for one day, so a batch of draws looks the day up once.
+	 *
+	 * @param day Day of the year, starting at 0
+	 * @return Tables for the day
+	 */
+	public DayTable getDayTable(int day) {
+
+		DayTable table = current;
+
+		if(table == null || table.day != day) {
+			//Concurrent builders produce identical tables, so it does not matter whose is kept
+			table = new DayTable(day);
+			current = table;
+		}
+
+		return table;
+
+	}
+
+	private static int bucket(float confidence) {
+		int b = Math.round(confidence * (CONFIDENCE_BUCKETS - 1));
+		return Math.max(0, Math.min(CONFIDENCE_BUCKETS - 1, b));
+	}
+
+	private static double bucketConfidence(int bucket) {
+		return bucket / (double) (CONFIDENCE_BUCKETS - 1);
+	}
+
+	/**
+	 * Returns the exact probability of each departure hour for a per-trial probability.
+	 *
+	 * @param p Per-trial probability
+	 * @return Probability by departure hour
+	 */
+	public static double[] distribution(double p) {
+
+		p = Math.max(0, Math.min(1, p));
+
+		double[] pmf = new double[OUTCOMES];
+		double choose = 1;
+		for(int k = 0; k < OUTCOMES; k++) {
+			pmf[k] = choose * Math.pow(p, k) * Math.pow(1 - p, TRIALS - k);
+			choose = choose * (TRIALS - k) / (k + 1);
+		}
+		return pmf;
+
+	}
+
+	/**
+	 * Alias tables for every confidence bucket on one day, flattened as bucket * OUTCOMES + outcome.
+	 */
+	public final class DayTable {
+
+		private final int day;
+
+		private final double[] prob = new double[CONFIDENCE_BUCKETS * OUTCOMES];
+		private final byte[] alias = new byte[CONFIDENCE_BUCKETS * OUTCOMES];
+
+		private DayTable(int day) {
+
+			this.day = day;
+
+			int[] small = new int[OUTCOMES];
+			int[] large = new int[OUTCOMES];
+			double[] scaled = new double[OUTCOMES];
+
+			for(int b = 0; b < CONFIDENCE_BUCKETS; b++) {
+
+				double[] pmf = distribution(probability(sun.getSunrise(day), sun.getDayLength(day), bucketConfidence(b)));
+				int base = b * OUTCOMES;
+
+				//Vose's alias method
+				int ns = 0;
+				int nl = 0;
+				for(int k = 0; k < OUTCOMES; k++) {
+					scaled[k] = pmf[k] * OUTCOMES;
+					if(scaled[k] < 1) small[ns++] = k;
+					else large[nl++] = k;
+				}
+
+				while(ns > 0 && nl > 0) {
+					int s = small[--ns];
+					int l = large[--nl];
+					prob[base + s] = scaled[s];
+					alias[base + s] = (byte) l;
+					scaled[l] = (scaled[l] + scaled[s]) - 1;
+					if(scaled[l] < 1) small[ns++] = l;
+					else large[nl++] = l;
+				}
+
+				//Whatever is left is 1 up to rounding error
+				while(nl > 0) {
+					int l = large[--nl];
+					prob[base + l] = 1;
+					alias[base + l] = (byte) l;
+				}
+				while(ns > 0) {
+					int s = small[--ns];
+					prob[base + s] = 1;
+					alias[base + s] = (byte) s;
+				}
+
+			}
+
+		}
+
+		/**
+		 * Returns the day of the year these tables are for.
+		 *
+		 * @return Day of the year, starting at 0
+		 */
+		public int getDay() {
+			return day;
+		}
+
+		/**
+		 * Draws a departure hour.
+		 *
+		 * @param confidence Confidence between 0.0 and 1.0
+		 * @param random Random stream. Exactly one double is drawn.
+		 * @return Departure hour, from 0 to {@link #TRIALS}
+		 */
+		public int sample(float confidence, SplittableRandom random) {
+
+			int base = bucket(confidence) * OUTCOMES;
+
+			double u = random.nextDouble() * OUTCOMES;
+			int k = (int) u;
+			return (u - k < prob[base + k]) ? k : alias[base + k];
+
+		}
+
+	}
+
+}
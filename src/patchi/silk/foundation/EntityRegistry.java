@@ -0,0 +1,157 @@
+package patchi.silk.foundation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import patchi.silk.entities.Person;
+import patchi.silk.entities.Road;
+import patchi.silk.entities.Settlement;
+
+/**
+ * ID index over every entity in a world. Provides constant time lookups for settlements, roads and people.<br>
+ * Settlements and roads are also interned into dense integer handles, assigned in registration order, which the simulation uses in place of String IDs.
+ */
+public class EntityRegistry {
+
+	/** Settlements keyed by ID. */
+	private final HashMap<String,Settlement> SETTLEMENTS = new HashMap<>();
+
+	/** Roads keyed by ID. */
+	private final HashMap<String,Road> ROADS = new HashMap<>();
+
+	/** People keyed by ID. */
+	private final HashMap<String,Person> PEOPLE = new HashMap<>();
+
+	/** Settlements indexed by handle. */
+	private final ArrayList<Settlement> SETTLEMENT_HANDLES = new ArrayList<>();
+
+	/** Roads indexed by handle. */
+	private final ArrayList<Road> ROAD_HANDLES = new ArrayList<>();
+
+	/**
+	 * Indexes a settlement and assigns it the next free handle. Throws IllegalArgumentException if the ID is already registered.
+	 *
+	 * @param S Settlement
+	 */
+	public void register(Settlement S) {
+
+		if(SETTLEMENTS.putIfAbsent(S.getID(), S) != null) throw new IllegalArgumentException("Duplicate settlement ID: " + S.getID());
+
+		S.setHandle(SETTLEMENT_HANDLES.size());
+		SETTLEMENT_HANDLES.add(S);
+
+	}
+
+	/**
+	 * Indexes a road and assigns it the next free handle. Throws IllegalArgumentException if the ID is already registered.
+	 *
+	 * @param R Road
+	 */
+	public void register(Road R) {
+
+		if(ROADS.putIfAbsent(R.getID(), R) != null) throw new IllegalArgumentException("Duplicate road ID: " + R.getID());
+
+		R.setHandle(ROAD_HANDLES.size());
+		ROAD_HANDLES.add(R);
+
+	}
+
+	/**
+	 * Indexes a person. Throws IllegalArgumentException if the ID is already registered.
+	 *
+	 * @param P Person
+	 */
+	public void register(Person P) {
+		if(PEOPLE.putIfAbsent(P.getID(), P) != null) throw new IllegalArgumentException("Duplicate person ID: " + P.getID());
+	}
+
+	/**
+	 * Returns the settlement with the given ID. Throws IllegalArgumentException if it is not registered.
+	 *
+	 * @param id Settlement String ID
+	 * @return Settlement by ID
+	 */
+	public Settlement getSettlement(String id) {
+
+		Settlement S = SETTLEMENTS.get(id);
+		if(S == null) throw new IllegalArgumentException("Unknown settlement: " + id);
+		return S;
+
+	}
+
+	/**
+	 * Returns the settlement with the given handle.
+	 *
+	 * @param handle Settlement handle
+	 * @return Settlement by handle
+	 */
+	public Settlement getSettlement(int handle) {
+		return SETTLEMENT_HANDLES.get(handle);
+	}
+
+	/**
+	 * Returns the number of settlement handles issued. Handles run from 0 to this value, exclusive.
+	 *
+	 * @return Settlement handle count
+	 */
+	public int getSettlementCount() {
+		return SETTLEMENT_HANDLES.size();
+	}
+
+	/**
+	 * Returns the road with the given ID. Throws IllegalArgumentException if it is not registered.
+	 *
+	 * @param id Road String ID
+	 * @return Road by ID
+	 */
+	public Road getRoad(String id) {
+
+		Road R = ROADS.get(id);
+		if(R == null) throw new IllegalArgumentException("Unknown road: " + id);
+		return R;
+
+	}
+
+	/**
+	 * Returns the road with the given handle.
+	 *
+	 * @param handle Road handle
+	 * @return Road by handle
+	 */
+	public Road getRoad(int handle) {
+		return ROAD_HANDLES.get(handle);
+	}
+
+	/**
+	 * Returns the number of road handles issued. Handles run from 0 to this value, exclusive.
+	 *
+	 * @return Road handle count
+	 */
+	public int getRoadCount() {
+		return ROAD_HANDLES.size();
+	}
+
+	/**
+	 * Returns the person with the given ID. Throws IllegalArgumentException if they are not registered.
+	 *
+	 * @param id Person String ID
+	 * @return Person by ID
+	 */
+	public Person getPerson(String id) {
+
+		Person P = PEOPLE.get(id);
+		if(P == null) throw new IllegalArgumentException("Unknown person: " + id);
+		return P;
+
+	}
+
+	/** Removes every entity from the index. */
+	public void clear() {
+		SETTLEMENTS.clear();
+		ROADS.clear();
+		PEOPLE.clear();
+		SETTLEMENT_HANDLES.clear();
+		ROAD_HANDLES.clear();
+	}
+
+}
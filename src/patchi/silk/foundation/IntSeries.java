@@ -0,0 +1,23 @@
+package patchi.silk.foundation;
+
+/**
+ * Read-only sequence of int samples, oldest first.
+ */
+public interface IntSeries {
+
+	/**
+	 * Returns the number of samples.
+	 *
+	 * @return Sample count
+	 */
+	public int size();
+
+	/**
+	 * Returns a sample.
+	 *
+	 * @param i Index, where 0 is the oldest sample
+	 * @return Sample
+	 */
+	public int get(int i);
+
+}
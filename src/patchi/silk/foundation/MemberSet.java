@@ -0,0 +1,92 @@
+package patchi.silk.foundation;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Unordered set of person slots, such as the inhabitants of a settlement.<br>
+ * Members are packed into a flat int array. Each person's position in it is kept in a back-index column of the {@link PersonStore},
+ * so adding and removing are constant time: a removed member's place is filled by the last member.
+ * A person belongs to at most one set at a time.
+ */
+public class MemberSet {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private int[] members = new int[INITIAL_CAPACITY];
+
+	private int size = 0;
+
+	/**
+	 * Adds a person.
+	 *
+	 * @param slot Person slot. Must not already be in a set.
+	 * @param index Back-index column, updated with the person's position
+	 */
+	void add(int slot, int[] index) {
+
+		if(size == members.length) members = Arrays.copyOf(members, size * 2);
+
+		index[slot] = size;
+		members[size++] = slot;
+
+	}
+
+	/**
+	 * Removes a person, moving the last member into their place.
+	 *
+	 * @param slot Person slot. Must be in this set.
+	 * @param index Back-index column, updated for the moved member
+	 * @throws IllegalStateException if the person is not a member
+	 */
+	void remove(int slot, int[] index) {
+
+		int position = index[slot];
+		if(position < 0 || position >= size || members[position] != slot) throw new IllegalStateException("Slot " + slot + " is not a member");
+
+		int last = members[--size];
+		members[position] = last;
+		index[last] = position;
+		index[slot] = -1;
+
+	}
+
+	/**
+	 * Returns the number of members.
+	 *
+	 * @return Member count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the member at a position. Positions change as members are removed.
+	 *
+	 * @param position Position, from 0 to size() - 1
+	 * @return Person slot
+	 */
+	public int get(int position) {
+		if(position >= size) throw new IndexOutOfBoundsException("Position " + position + " of " + size);
+		return members[position];
+	}
+
+	/**
+	 * Passes every member to an action, in storage order. The set must not change while iterating.
+	 *
+	 * @param action Action receiving each person slot
+	 */
+	public void forEach(IntConsumer action) {
+		for(int k = 0; k < size; k++) action.accept(members[k]);
+	}
+
+	/**
+	 * Returns a copy of the members, safe to keep while the set changes.
+	 *
+	 * @return Person slots
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(members, size);
+	}
+
+}
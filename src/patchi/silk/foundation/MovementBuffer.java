@@ -0,0 +1,170 @@
+package patchi.silk.foundation;
+
+import java.util.Arrays;
+
+/**
+ * Records the people whose location or flags change during a tick, along with their state before the change, so the census and
+ * settlement membership can be updated later, in the order the changes were made. Also records the follow-up events those changes give rise to.<br>
+ * Lets shards of a parallel tick run without touching shared settlement, census or scheduler state.
+ */
+public class MovementBuffer {
+
+	private int size = 0;
+
+	/** Person slot of each change. */
+	private int[] slots = new int[64];
+
+	/** Location handle of each person before the change. */
+	private int[] oldLocations = new int[64];
+
+	/** Flags of each person before the change. */
+	private int[] oldFlags = new int[64];
+
+	/** Destination handle of each person before the change. */
+	private int[] oldDestinations = new int[64];
+
+	/** Arrivals, departures and passes through a settlement onto the next leg, among the changes applied by the last call to {@link #apply(PersonStore, Scheduler)}. */
+	private int arrivals = 0;
+	private int departures = 0;
+	private int legs = 0;
+
+	private int eventCount = 0;
+
+	/** Person slot of each follow-up event. */
+	private int[] eventSlots = new int[64];
+
+	/** Tick of each follow-up event. -1 for a midnight decision. */
+	private long[] eventTicks = new long[64];
+
+	/**
+	 * Records that a person is about to change location or flags. Call once per person per tick, before the first change.
+	 *
+	 * @param slot Person slot
+	 * @param location Location handle before the change
+	 * @param flags Flags before the change
+	 * @param destination Destination handle before the change
+	 */
+	public void move(int slot, int location, int flags, int destination) {
+
+		if(size == slots.length) {
+			slots = Arrays.copyOf(slots, size * 2);
+			oldLocations = Arrays.copyOf(oldLocations, size * 2);
+			oldFlags = Arrays.copyOf(oldFlags, size * 2);
+			oldDestinations = Arrays.copyOf(oldDestinations, size * 2);
+		}
+
+		slots[size] = slot;
+		oldLocations[size] = location;
+		oldFlags[size] = flags;
+		oldDestinations[size] = destination;
+		size++;
+
+	}
+
+	/**
+	 * Records a departure or arrival event to be scheduled.
+	 *
+	 * @param slot Person slot
+	 * @param tick Tick the event falls due
+	 */
+	public void schedule(int slot, long tick) {
+		addEvent(slot, tick);
+	}
+
+	/**
+	 * Records a person joining the pool deciding at the next midnight.
+	 *
+	 * @param slot Person slot
+	 */
+	public void awaitDecision(int slot) {
+		addEvent(slot, -1);
+	}
+
+	private void addEvent(int slot, long tick) {
+
+		if(eventCount == eventSlots.length) {
+			eventSlots = Arrays.copyOf(eventSlots, eventCount * 2);
+			eventTicks = Arrays.copyOf(eventTicks, eventCount * 2);
+		}
+
+		eventSlots[eventCount] = slot;
+		eventTicks[eventCount] = tick;
+		eventCount++;
+
+	}
+
+	/**
+	 * Applies every recorded change to the census and settlement membership, and every event to the scheduler, then empties the buffer.
+	 *
+	 * @param store Store owning the person slots
+	 * @param scheduler Scheduler receiving follow-up events
+	 */
+	public void apply(PersonStore store, Scheduler scheduler) {
+
+		arrivals = 0;
+		departures = 0;
+		legs = 0;
+
+		for(int k = 0; k < size; k++) {
+
+			int slot = slots[k];
+			boolean wasTravelling = (oldFlags[k] & PersonStore.TRAVELLING) != 0;
+			boolean travelling = store.hasFlags(slot, PersonStore.TRAVELLING);
+
+			if(wasTravelling && !travelling) arrivals++;
+			else if(!wasTravelling && travelling) departures++;
+			else if(travelling && store.getLocation(slot) != oldLocations[k]) legs++;
+
+			store.relocate(slot, oldLocations[k], oldFlags[k], oldDestinations[k]);
+
+		}
+
+		for(int k = 0; k < eventCount; k++) {
+
+			if(eventTicks[k] < 0) scheduler.awaitDecision(eventSlots[k]);
+			else scheduler.schedule(eventTicks[k], eventSlots[k]);
+
+		}
+
+		size = 0;
+		eventCount = 0;
+
+	}
+
+	/**
+	 * Returns the number of changes recorded.
+	 *
+	 * @return Change count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of journeys ended by the last call to {@link #apply(PersonStore, Scheduler)}. Leg changes are not counted.
+	 *
+	 * @return Arrival count
+	 */
+	public int getArrivalCount() {
+		return arrivals;
+	}
+
+	/**
+	 * Returns the number of journeys started by the last call to {@link #apply(PersonStore, Scheduler)}. Leg changes are not counted.
+	 *
+	 * @return Departure count
+	 */
+	public int getDepartureCount() {
+		return departures;
+	}
+
+	/**
+	 * Returns the number of people who passed through a settlement onto the next leg of their journey, in the last call to {@link #apply(PersonStore, Scheduler)}.
+	 *
+	 * @return Leg change count
+	 */
+	public int getLegCount() {
+		return legs;
+	}
+
+}
@@ -0,0 +1,351 @@
+package patchi.silk.foundation;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shortest path search over a snapshot of the road network.<br>
+ * Working state lives in scratch buffers taken from a pool for the length of one query, never on the settlements themselves,
+ * so any number of queries may run at once from any thread, including while the world is ticking.
+ */
+public class PathFinder {
+
+	/** Distance reported between unconnected settlements. */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** Number of settlements. */
+	private final int n;
+
+	/** Road network searched. */
+	private final RoadGraph graph;
+
+	/** Idle scratch buffers. */
+	private final ConcurrentLinkedQueue<Scratch> pool = new ConcurrentLinkedQueue<>();
+
+	/** Executor running asynchronous queries. */
+	private final Executor executor;
+
+	/** Working state of one search. */
+	private static final class Scratch {
+
+		final int[] distance;
+		final int[] previous;
+
+		/** Search each entry was last written by. Entries from older searches read as unvisited, so buffers need no clearing. */
+		final int[] visited;
+		int search = 0;
+
+		/** Binary heap of (distance, tie-break) packed into longs. The tie-break identifies the settlement. */
+		long[] heap;
+		int heapSize;
+
+		Scratch(int n) {
+			distance = new int[n];
+			previous = new int[n];
+			visited = new int[n];
+			heap = new long[Math.max(16, n)];
+		}
+
+		/** Starts a new search, invalidating every entry of the last one. */
+		void reset() {
+
+			if(++search == 0) {
+				Arrays.fill(visited, 0);
+				search = 1;
+			}
+			heapSize = 0;
+
+		}
+
+		int distance(int h) {
+			return (visited[h] == search) ? distance[h] : UNREACHABLE;
+		}
+
+		void push(int h, int d, int from, int tie) {
+
+			visited[h] = search;
+			distance[h] = d;
+			previous[h] = from;
+
+			if(heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+
+			long key = ((long) d << 32) | tie;
+			int k = heapSize++;
+
+			//Sift up
+			while(k > 0) {
+				int parent = (k - 1) >>> 1;
+				if(heap[parent] <= key) break;
+				heap[k] = heap[parent];
+				k = parent;
+			}
+			heap[k] = key;
+
+		}
+
+		long poll() {
+
+			long top = heap[0];
+			long last = heap[--heapSize];
+			int k = 0;
+
+			//Sift down
+			while(true) {
+				int child = 2 * k + 1;
+				if(child >= heapSize) break;
+				if(child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+				if(last <= heap[child]) break;
+				heap[k] = heap[child];
+				k = child;
+			}
+			if(heapSize > 0) heap[k] = last;
+
+			return top;
+
+		}
+
+	}
+
+	/**
+	 * Searches the current road network of a world. Asynchronous queries run on the common pool.
+	 *
+	 * @param world World to search
+	 */
+	public PathFinder(World world) {
+		this(world.getRoadGraph(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Searches a road network.
+	 *
+	 * @param graph Road network to search
+	 * @param executor Executor running asynchronous queries
+	 */
+	public PathFinder(RoadGraph graph, Executor executor) {
+
+		this.graph = graph;
+		this.executor = executor;
+		n = graph.size();
+
+	}
+
+	/**
+	 * Returns the road network searched.
+	 *
+	 * @return Road graph
+	 */
+	public RoadGraph getRoadGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the number of settlements covered.
+	 *
+	 * @return Settlement count
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns the shortest distance between two settlements.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Distance, or {@link #UNREACHABLE}
+	 */
+	public int getDistance(int from, int to) {
+
+		Scratch S = acquire();
+
+		try {
+			search(S, from, to);
+			return S.distance(to);
+		} finally {
+			pool.offer(S);
+		}
+
+	}
+
+	/**
+	 * Returns the shortest route between two settlements.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Handles of every settlement on the route, including both ends. Null if unreachable.
+	 */
+	public int[] findPath(int from, int to) {
+
+		Scratch S = acquire();
+
+		try {
+
+			search(S, from, to);
+			return (S.distance(to) == UNREACHABLE) ? null : route(S, from, to);
+
+		} finally {
+			pool.offer(S);
+		}
+
+	}
+
+	/**
+	 * Finds the shortest route between two settlements on the query executor.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Future completed with the route, as in {@link #findPath(int, int)}
+	 */
+	public CompletableFuture<int[]> findPathAsync(int from, int to) {
+		return CompletableFuture.supplyAsync(() -> findPath(from, to), executor);
+	}
+
+	/**
+	 * Computes the shortest distance from every settlement to a destination, and the next settlement to head for.
+	 * Roads are two-way, so this is a full search outwards from the destination.
+	 *
+	 * @param to Destination settlement handle
+	 * @param distance Filled with the distance from each settlement, or {@link #UNREACHABLE}
+	 * @param next Filled with the next settlement from each settlement, or -1 at the destination or if unreachable
+	 */
+	public void shortestPathTree(int to, int[] distance, int[] next) {
+
+		Scratch S = acquire();
+
+		try {
+
+			search(S, to, -1);
+
+			for(int h = 0; h < n; h++) {
+				distance[h] = S.distance(h);
+				next[h] = (h == to || distance[h] == UNREACHABLE) ? -1 : S.previous[h];
+			}
+
+		} finally {
+			pool.offer(S);
+		}
+
+	}
+
+	private Scratch acquire() {
+
+		Scratch S = pool.poll();
+		return (S == null) ? new Scratch(n) : S;
+
+	}
+
+	/**
+	 * Reads the route to a settlement back from a finished search.
+	 *
+	 * @param S Scratch buffers searched in
+	 * @param from Start settlement handle
+	 * @param to Settlement reached by the search
+	 * @return Handles of every settlement on the route, including both ends
+	 */
+	private static int[] route(Scratch S, int from, int to) {
+
+		int hops = 0;
+		for(int h = to; h != from; h = S.previous[h]) hops++;
+
+		int[] route = new int[hops + 1];
+		int h = to;
+		for(int k = hops; k >= 0; k--) {
+			route[k] = h;
+			h = S.previous[h];
+		}
+
+		return route;
+
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from a settlement until a target is settled, or until every reachable settlement is settled.
+	 *
+	 * @param S Scratch buffers to search in
+	 * @param from Start settlement handle
+	 * @param target Settlement to stop at, or -1 to search everything
+	 */
+	private void search(Scratch S, int from, int target) {
+
+		S.reset();
+		S.push(from, 0, -1, from);
+
+		while(S.heapSize > 0) {
+
+			long top = S.poll();
+			int u = (int) top;
+			int d = (int) (top >>> 32);
+
+			//Stale entry, superseded by a shorter one
+			if(d > S.distance[u]) continue;
+			if(u == target) return;
+
+			for(int e = graph.getStart(u), end = graph.getEnd(u); e < end; e++) {
+
+				int v = graph.getNeighbour(e);
+				int nd = d + graph.getLength(e);
+
+				if(nd < S.distance(v)) S.push(v, nd, u, v);
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Finds the settlements nearest a settlement by road, and the shortest route to each.
+	 * The search stops as soon as enough are settled, so its cost depends on the count, not on the size of the network.
+	 * Settlements the same distance away are taken in ID order, so the result does not depend on load order.
+	 *
+	 * @param from Start settlement handle
+	 * @param count Most settlements to find, not counting the start
+	 * @return Routes to the settlements found, nearest first, each holding every settlement on the route including both ends.
+	 *         Fewer than the count if fewer are reachable.
+	 */
+	public int[][] findNearest(int from, int count) {
+
+		Scratch S = acquire();
+
+		try {
+
+			int[][] routes = new int[count][];
+			int found = 0;
+
+			S.reset();
+			S.push(from, 0, -1, graph.getRank(from));
+
+			while(S.heapSize > 0 && found < count) {
+
+				long top = S.poll();
+				int u = graph.getSettlementAtRank((int) top);
+				int d = (int) (top >>> 32);
+
+				//Stale entry, superseded by a shorter one
+				if(d > S.distance[u]) continue;
+
+				if(u != from) routes[found++] = route(S, from, u);
+
+				for(int e = graph.getStart(u), end = graph.getEnd(u); e < end; e++) {
+
+					int v = graph.getNeighbour(e);
+					int nd = d + graph.getLength(e);
+
+					if(nd < S.distance(v)) S.push(v, nd, u, graph.getRank(v));
+
+				}
+
+			}
+
+			return (found == count) ? routes : Arrays.copyOf(routes, found);
+
+		} finally {
+			pool.offer(S);
+		}
+
+	}
+
+}
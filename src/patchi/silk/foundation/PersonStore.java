@@ -0,0 +1,695 @@
+package patchi.silk.foundation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import patchi.silk.entities.CharacterFlag;
+import patchi.silk.entities.Person;
+import patchi.silk.entities.Road;
+
+/**
+ * Columnar storage for the simulation state of every person in a world.<br>
+ * Each person owns one slot, and each property is held in a primitive array indexed by slot so the hour tick can run as a flat loop.
+ * {@link Person} objects are thin views onto their slot.
+ */
+public class PersonStore {
+
+	/** Flag bitmasks, one bit per {@link CharacterFlag} ordinal. */
+	public static final int FEMALE = mask(CharacterFlag.FEMALE);
+	public static final int TRAVELLING = mask(CharacterFlag.TRAVELLING);
+	public static final int DO_TRAVEL = mask(CharacterFlag.DO_TRAVEL);
+	public static final int PREP_TRAVEL = mask(CharacterFlag.PREP_TRAVEL);
+	public static final int DO_DECISION_TREE = mask(CharacterFlag.DO_DECISION_TREE);
+
+	/** Kilometres covered by a travelling person each hour. */
+	public static final int TRAVEL_SPEED = 6;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final World world;
+
+	private int size = 0;
+
+	/** Person views by slot. */
+	Person[] people = new Person[INITIAL_CAPACITY];
+
+	/** Location handle. Refers to a road while travelling, otherwise a settlement. */
+	int[] location = new int[INITIAL_CAPACITY];
+	/** Destination settlement handle: the end of the current leg. -1 if none. */
+	int[] destination = new int[INITIAL_CAPACITY];
+	/** Stops after the destination on a journey of several legs, ending at the final destination. Null on a single leg. */
+	int[][] onward = new int[INITIAL_CAPACITY][];
+	/** Index in onward of the stop the next leg leads to. */
+	int[] onwardIndex = new int[INITIAL_CAPACITY];
+	/** Remaining distance to the next settlement, as of the stamp tick. */
+	int[] remainingDistance = new int[INITIAL_CAPACITY];
+	/** Hours remaining until departure, as of the stamp tick. */
+	int[] departureHours = new int[INITIAL_CAPACITY];
+	/** Tick at which remainingDistance and departureHours were last written. Both are advanced lazily from here. */
+	long[] stamp = new long[INITIAL_CAPACITY];
+	/** Confidence modifier between 0.0 and 1.0. */
+	float[] confidence = new float[INITIAL_CAPACITY];
+	/** Flag bitmask. */
+	int[] flags = new int[INITIAL_CAPACITY];
+	/** Key of the person's random streams. Derived from their ID so it survives saving and loading, unlike the slot. */
+	long[] randomKey = new long[INITIAL_CAPACITY];
+	/** Whether the person has been added to the world, and so is counted in the census and settlement membership. */
+	boolean[] placed = new boolean[INITIAL_CAPACITY];
+	/** Position of the person within the {@link MemberSet} they belong to. -1 if none. */
+	int[] memberIndex = new int[INITIAL_CAPACITY];
+
+	/** Head counts by location, kept in step with every placed person. */
+	private final Census census = new Census();
+
+	/** Set when state is changed outside the tick, meaning the world's schedule must be rebuilt. */
+	private boolean scheduleDirty = false;
+
+	/** Working space for grouping the decision pool by settlement. */
+	private int[] groupStarts = new int[0];
+	private int[] groupScratch = new int[0];
+
+	PersonStore(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Returns the bitmask for a flag.
+	 *
+	 * @param f Flag
+	 * @return Bitmask with the flag's bit set
+	 */
+	public static int mask(CharacterFlag f) {
+		return 1 << f.ordinal();
+	}
+
+	/**
+	 * Allocates a slot for a new person, initialised to the default state.
+	 *
+	 * @param P Person view owning the slot
+	 * @return Slot index
+	 */
+	public int allocate(Person P) {
+
+		if(size == people.length) grow();
+
+		int slot = size++;
+		people[slot] = P;
+		location[slot] = -1;
+		destination[slot] = -1;
+		onward[slot] = null;
+		onwardIndex[slot] = 0;
+		remainingDistance[slot] = 0;
+		departureHours[slot] = 0;
+		stamp[slot] = world.getTick();
+		confidence[slot] = 1.0f;
+		flags[slot] = 0;
+		randomKey[slot] = RandomStreams.key(P.getID());
+		placed[slot] = false;
+		memberIndex[slot] = -1;
+		scheduleDirty = true;
+
+		return slot;
+
+	}
+
+	private void grow() {
+
+		int capacity = people.length * 2;
+
+		people = Arrays.copyOf(people, capacity);
+		location = Arrays.copyOf(location, capacity);
+		destination = Arrays.copyOf(destination, capacity);
+		onward = Arrays.copyOf(onward, capacity);
+		onwardIndex = Arrays.copyOf(onwardIndex, capacity);
+		remainingDistance = Arrays.copyOf(remainingDistance, capacity);
+		departureHours = Arrays.copyOf(departureHours, capacity);
+		stamp = Arrays.copyOf(stamp, capacity);
+		confidence = Arrays.copyOf(confidence, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+		randomKey = Arrays.copyOf(randomKey, capacity);
+		placed = Arrays.copyOf(placed, capacity);
+		memberIndex = Arrays.copyOf(memberIndex, capacity);
+
+	}
+
+	/** Releases every slot. Existing Person views must no longer be used. */
+	public void clear() {
+		Arrays.fill(people, 0, size, null);
+		Arrays.fill(onward, 0, size, null);
+		size = 0;
+		census.clear();
+		scheduleDirty = true;
+	}
+
+	/**
+	 * Counts a person into the census, and into their settlement's inhabitants or their road's travellers, as they are added to the world.
+	 * From then on both follow every change of location, flags or destination.
+	 *
+	 * @param slot Person slot
+	 */
+	public void place(int slot) {
+
+		if(placed[slot]) return;
+
+		placed[slot] = true;
+		census.count(location[slot], flags[slot], 1);
+		MemberSet set = memberSetOf(location[slot], flags[slot], destination[slot]);
+		if(set != null) set.add(slot, memberIndex);
+
+	}
+
+	/**
+	 * Moves a placed person's census entry and membership from an earlier state to their current one.
+	 *
+	 * @param slot Person slot
+	 * @param oldLocation Location handle before the change
+	 * @param oldFlags Flags before the change
+	 */
+	void relocate(int slot, int oldLocation, int oldFlags) {
+		relocate(slot, oldLocation, oldFlags, destination[slot]);
+	}
+
+	/**
+	 * Moves a placed person's census entry and membership from an earlier state to their current one.
+	 *
+	 * @param slot Person slot
+	 * @param oldLocation Location handle before the change
+	 * @param oldFlags Flags before the change
+	 * @param oldDestination Destination handle before the change
+	 */
+	void relocate(int slot, int oldLocation, int oldFlags, int oldDestination) {
+
+		if(!placed[slot]) return;
+
+		census.count(oldLocation, oldFlags, -1);
+		census.count(location[slot], flags[slot], 1);
+
+		MemberSet from = memberSetOf(oldLocation, oldFlags, oldDestination);
+		MemberSet to = memberSetOf(location[slot], flags[slot], destination[slot]);
+
+		if(from != to) {
+			if(from != null) from.remove(slot, memberIndex);
+			if(to != null) to.add(slot, memberIndex);
+		}
+
+	}
+
+	/**
+	 * Returns the set a person with the given state belongs to: their settlement's inhabitants,
+	 * or while travelling, the road's travellers heading their way.
+	 *
+	 * @return Member set, or null if nowhere
+	 */
+	private MemberSet memberSetOf(int location, int flags, int destination) {
+
+		if(location < 0) return null;
+		if((flags & TRAVELLING) != 0) return world.getRoadByHandle(location).getTravellersTowards(destination);
+		return world.getSettlementByHandle(location).getInhabitants();
+
+	}
+
+	/**
+	 * Returns the head counts by location.
+	 *
+	 * @return Census
+	 */
+	public Census getCensus() {
+		return census;
+	}
+
+	/**
+	 * Returns the number of allocated slots.
+	 *
+	 * @return Slot count
+	 */
+	public int size() {
+		return size;
+	}
+
+	public Person getPerson(int slot) {
+		return people[slot];
+	}
+
+	//############################## TICK ##############################//
+
+	/**
+	 * Reorders the people deciding this tick so each settlement's residents are next to each other, ready for {@link #process}.
+	 * Residents of a settlement keep their relative order, so the result depends only on the order given.
+	 *
+	 * @param work Slots due this tick, starting with the people deciding
+	 * @param count Number of people deciding
+	 */
+	public void groupBySettlement(int[] work, int count) {
+
+		int settlements = world.getRoadGraph().size();
+
+		if(groupStarts.length < settlements + 1) groupStarts = new int[settlements + 1];
+		else Arrays.fill(groupStarts, 0, settlements + 1, 0);
+		if(groupScratch.length < count) groupScratch = new int[Math.max(count, groupScratch.length * 2)];
+
+		//Counting sort on location
+		for(int k = 0; k < count; k++) groupStarts[location[work[k]] + 1]++;
+		for(int h = 0; h < settlements; h++) groupStarts[h + 1] += groupStarts[h];
+		for(int k = 0; k < count; k++) groupScratch[groupStarts[location[work[k]]]++] = work[k];
+
+		System.arraycopy(groupScratch, 0, work, 0, count);
+
+	}
+
+	/**
+	 * Processes the people due this tick: travel decisions, departures and arrivals.<br>
+	 * Changes of location and flags, and follow-up events, are recorded to the buffer rather than applied, so disjoint ranges of the work array may run concurrently.
+	 * Randomness is drawn from a stream per person derived from the tick seed, so results do not depend on how the work is split.
+	 *
+	 * @param work Slots due this tick, as collected by the {@link Scheduler}
+	 * @param from First work index, inclusive
+	 * @param to Last work index, exclusive
+	 * @param decisions Number of people at the start of the work array making a travel decision, grouped by {@link #groupBySettlement}. 0 except at midnight.
+	 * @param now Current tick
+	 * @param tickSeed Seed shared by every slot this tick
+	 * @param out Buffer receiving settlement movements and follow-up events
+	 */
+	public void process(int[] work, int from, int to, int decisions, long now, long tickSeed, MovementBuffer out) {
+
+		final RoadGraph graph = world.getRoadGraph();
+
+		if(from < decisions) {
+			decide(work, from, Math.min(to, decisions), now, tickSeed, graph, out);
+			from = decisions;
+		}
+
+		for(int k = from; k < to; k++) {
+
+			int i = work[k];
+			int f = flags[i];
+
+			if((f & PREP_TRAVEL) != 0) {
+
+				//Characters depart
+				if(getDepartureTick(i) == now) {
+					out.move(i, location[i], f, destination[i]);
+					depart(i, now, graph);
+					out.schedule(i, getArrivalTick(i));
+				}
+
+			} else if((f & TRAVELLING) != 0) {
+
+				//Characters arrive
+				if(getArrivalTick(i) == now) {
+					out.move(i, location[i], f, destination[i]);
+					arrive(i, now);
+
+					if(onward[i] != null) {
+						//Passing through. Carry straight on along the next leg
+						nextLeg(i);
+						depart(i, now, graph);
+						out.schedule(i, getArrivalTick(i));
+					} else if(isDecisionEligible(f)) {
+						out.awaitDecision(i);
+					}
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Makes the midnight travel decisions for a run of the work array, one settlement at a time.
+	 * Everyone in a settlement shares its nearest settlements and the day's departure tables, so those are looked up once per settlement.
+	 * Journeys are chosen from the routes to the nearest settlements, already resolved into legs and shared by everyone taking them.
+	 */
+	private void decide(int[] work, int from, int to, long now, long tickSeed, RoadGraph graph, MovementBuffer out) {
+
+		final DepartureSampler.DayTable departures = world.getDepartureSampler().getDayTable(world.getClock().getCurrentDayCount());
+		final RouteTable routes = world.getRouteTable();
+
+		int k = from;
+
+		while(k < to) {
+
+			final int here = location[work[k]];
+			final int[][] nearest = routes.getNearestRoutes(here);
+
+			int end = k + 1;
+			while(end < to && location[work[end]] == here) end++;
+
+			//Nowhere to go. Try again tomorrow
+			if(nearest.length == 0) {
+				for(; k < end; k++) out.awaitDecision(work[k]);
+				continue;
+			}
+
+			for(; k < end; k++) {
+
+				int i = work[k];
+				int f = flags[i];
+
+				if((f & (PREP_TRAVEL | TRAVELLING)) != 0 || !isDecisionEligible(f)) continue;
+
+				//Travel decision making stage. Placeholder. Selects a random destination from the nearest towns
+				SplittableRandom random = new SplittableRandom(RandomStreams.derive(tickSeed, randomKey[i]));
+				int hours = departures.sample(confidence[i], random);
+
+				out.move(i, here, f, destination[i]);
+				setJourney(i, nearest[random.nextInt(nearest.length)]);
+				flags[i] = f | PREP_TRAVEL;
+
+				if(hours == 0) {
+					depart(i, now, graph);
+					out.schedule(i, getArrivalTick(i));
+				} else {
+					departureHours[i] = hours - 1;
+					stamp[i] = now;
+					out.schedule(i, getDepartureTick(i));
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Refills a scheduler from the current state of every placed slot.
+	 * Slots never placed, such as those of people the world rejected, are not simulated.
+	 *
+	 * @param scheduler Scheduler to fill. Cleared first.
+	 * @param now Last completed tick. Events overdue relative to it are scheduled for the following tick.
+	 */
+	public void buildSchedule(Scheduler scheduler, long now) {
+
+		scheduler.clear(now);
+
+		for(int i = 0; i < size; i++) {
+
+			if(!placed[i]) continue;
+
+			int f = flags[i];
+
+			if((f & PREP_TRAVEL) != 0) scheduler.schedule(Math.max(getDepartureTick(i), now + 1), i);
+			else if((f & TRAVELLING) != 0) scheduler.schedule(Math.max(getArrivalTick(i), now + 1), i);
+			else if(isDecisionEligible(f)) scheduler.awaitDecision(i);
+
+		}
+
+		scheduleDirty = false;
+
+	}
+
+	/**
+	 * Returns whether state has changed outside the tick since the schedule was last built.
+	 *
+	 * @return True if the schedule must be rebuilt
+	 */
+	public boolean isScheduleDirty() {
+		return scheduleDirty;
+	}
+
+	private static boolean isDecisionEligible(int f) {
+		return (f & (DO_DECISION_TREE | DO_TRAVEL)) == (DO_DECISION_TREE | DO_TRAVEL);
+	}
+
+	/**
+	 * Returns the tick at which a person preparing to travel departs.
+	 *
+	 * @param slot Person slot
+	 * @return Departure tick
+	 */
+	public long getDepartureTick(int slot) {
+		return stamp[slot] + departureHours[slot] + 1;
+	}
+
+	/**
+	 * Returns the tick at which a travelling person arrives, covering {@link #TRAVEL_SPEED} each hour.
+	 *
+	 * @param slot Person slot
+	 * @return Arrival tick
+	 */
+	public long getArrivalTick(int slot) {
+		return stamp[slot] + Math.max(1, (remainingDistance[slot] + TRAVEL_SPEED - 1) / TRAVEL_SPEED);
+	}
+
+	//############################## TRAVEL ##############################//
+
+	/**
+	 * Moves the person in the given slot from their settlement onto the road towards their destination.
+	 * If no road leads straight there, a journey is planned first and the road taken is its first leg.
+	 *
+	 * @param slot Person slot
+	 */
+	public void beginTravel(int slot) {
+		if(onward[slot] == null && world.getRoadGraph().findEdge(location[slot], destination[slot]) < 0) planJourney(slot, destination[slot]);
+		int oldLocation = location[slot];
+		int oldFlags = flags[slot];
+		depart(slot, world.getTick(), world.getRoadGraph());
+		relocate(slot, oldLocation, oldFlags);
+		scheduleDirty = true;
+	}
+
+	/**
+	 * Puts a person on the road towards their destination, leaving the census and settlement membership untouched.
+	 *
+	 * @param slot Person slot
+	 * @param now Current tick
+	 * @param graph Road network
+	 */
+	private void depart(int slot, long now, RoadGraph graph) {
+
+		int e = graph.findEdge(location[slot], destination[slot]);
+		if(e < 0) throw new IllegalStateException("No road from settlement " + location[slot] + " to " + destination[slot]);
+
+		flags[slot] = (flags[slot] & ~PREP_TRAVEL) | TRAVELLING;
+		departureHours[slot] = 0;
+
+		remainingDistance[slot] = graph.getLength(e);
+		stamp[slot] = now;
+		location[slot] = graph.getRoad(e);
+
+	}
+
+	/**
+	 * Takes a travelling person off their road at their destination, leaving the census and settlement membership untouched.
+	 *
+	 * @param slot Person slot
+	 * @param now Current tick
+	 */
+	private void arrive(int slot, long now) {
+
+		remainingDistance[slot] = 0;
+		stamp[slot] = now;
+		flags[slot] &= ~TRAVELLING;
+		location[slot] = destination[slot];
+
+	}
+
+	/**
+	 * Makes the next onward stop the destination, ending the journey's onward stops after the last.
+	 *
+	 * @param slot Person slot
+	 */
+	private void nextLeg(int slot) {
+
+		int[] stops = onward[slot];
+		destination[slot] = stops[onwardIndex[slot]++];
+		if(onwardIndex[slot] == stops.length) onward[slot] = null;
+
+	}
+
+	/**
+	 * Plans a journey from a person's settlement to any settlement, along the shortest route in the world's route table.
+	 * The destination becomes the first stop on the way, and the rest are taken in turn on arrival, without searching again.
+	 *
+	 * @param slot Person slot
+	 * @param to Final destination settlement handle
+	 */
+	public void planJourney(int slot, int to) {
+
+		if((flags[slot] & TRAVELLING) != 0) throw new IllegalStateException("Cannot plan a journey while travelling");
+
+		int from = location[slot];
+		if(from == to) throw new IllegalArgumentException("Already at settlement " + to);
+
+		int[] route = world.getRouteTable().getRoute(from, to);
+		if(route == null) throw new IllegalArgumentException("No route from settlement " + from + " to " + to);
+
+		int oldDestination = destination[slot];
+		setJourney(slot, route);
+		relocate(slot, location[slot], flags[slot], oldDestination);
+		scheduleDirty = true;
+
+	}
+
+	/**
+	 * Sets the legs of a journey, leaving the census, membership and schedule untouched. The route array is kept, not copied.
+	 *
+	 * @param slot Person slot
+	 * @param route Handles of every settlement on the route, starting where the person is
+	 */
+	private void setJourney(int slot, int[] route) {
+
+		destination[slot] = route[1];
+		onward[slot] = (route.length > 2) ? route : null;
+		onwardIndex[slot] = 2;
+
+	}
+
+	/**
+	 * Returns the settlement a person's journey ends at.
+	 *
+	 * @param slot Person slot
+	 * @return Final destination settlement handle, or -1 if none
+	 */
+	public int getFinalDestination(int slot) {
+
+		int[] stops = onward[slot];
+		return (stops == null) ? destination[slot] : stops[stops.length - 1];
+
+	}
+
+	/**
+	 * Returns the stops after the destination still to be reached on a person's journey.
+	 *
+	 * @param slot Person slot
+	 * @return Settlement handles in order, ending at the final destination. Empty on a single leg.
+	 */
+	public int[] getOnwardStops(int slot) {
+
+		int[] stops = onward[slot];
+		return (stops == null) ? new int[0] : Arrays.copyOfRange(stops, onwardIndex[slot], stops.length);
+
+	}
+
+	/**
+	 * Sets the stops after the destination on a person's journey, as when loading a journey under way.
+	 *
+	 * @param slot Person slot
+	 * @param stops Settlement handles in order, ending at the final destination. Empty for a single leg.
+	 */
+	public void setOnwardStops(int slot, int[] stops) {
+
+		onward[slot] = (stops.length == 0) ? null : stops.clone();
+		onwardIndex[slot] = 0;
+		scheduleDirty = true;
+
+	}
+
+	//############################## GETTERS / SETTERS ##############################//
+
+	public int getLocation(int slot) {
+		return location[slot];
+	}
+
+	public void setLocation(int slot, int handle) {
+		int oldLocation = location[slot];
+		location[slot] = handle;
+		relocate(slot, oldLocation, flags[slot]);
+		scheduleDirty = true;
+	}
+
+	public int getDestination(int slot) {
+		return destination[slot];
+	}
+
+	public void setDestination(int slot, int handle) {
+		int oldDestination = destination[slot];
+		destination[slot] = handle;
+		onward[slot] = null;
+		relocate(slot, location[slot], flags[slot], oldDestination);
+		scheduleDirty = true;
+	}
+
+	/**
+	 * Returns the remaining distance to the next settlement as of the current tick.
+	 *
+	 * @param slot Person slot
+	 * @return Remaining distance
+	 */
+	public int getRemainingDistance(int slot) {
+		if((flags[slot] & TRAVELLING) == 0) return remainingDistance[slot];
+		return (int) Math.max(0, remainingDistance[slot] - TRAVEL_SPEED * (world.getTick() - stamp[slot]));
+	}
+
+	/**
+	 * Returns how far along their road a travelling person is, measured from the road's first connecting settlement.
+	 *
+	 * @param slot Person slot
+	 * @return Distance from the road's A end, or -1 if not travelling
+	 */
+	public int getRoadPosition(int slot) {
+
+		if((flags[slot] & TRAVELLING) == 0) return -1;
+
+		Road R = world.getRoadByHandle(location[slot]);
+		int remaining = Math.min(R.getLength(), getRemainingDistance(slot));
+		return (destination[slot] == R.getConnectingBHandle()) ? R.getLength() - remaining : remaining;
+
+	}
+
+	public void setRemainingDistance(int slot, int d) {
+		departureHours[slot] = getDepartureHours(slot);
+		remainingDistance[slot] = d;
+		stamp[slot] = world.getTick();
+		scheduleDirty = true;
+	}
+
+	/**
+	 * Returns the hours remaining until departure as of the current tick.
+	 *
+	 * @param slot Person slot
+	 * @return Hours until departure
+	 */
+	public int getDepartureHours(int slot) {
+		if((flags[slot] & PREP_TRAVEL) == 0) return departureHours[slot];
+		return (int) Math.max(0, departureHours[slot] - (world.getTick() - stamp[slot]));
+	}
+
+	public void setDepartureHours(int slot, int h) {
+		remainingDistance[slot] = getRemainingDistance(slot);
+		departureHours[slot] = h;
+		stamp[slot] = world.getTick();
+		scheduleDirty = true;
+	}
+
+	/**
+	 * Returns the key of a person's random streams, derived from their ID.
+	 *
+	 * @param slot Person slot
+	 * @return Random stream key
+	 */
+	public long getRandomKey(int slot) {
+		return randomKey[slot];
+	}
+
+	public float getConfidence(int slot) {
+		return confidence[slot];
+	}
+
+	public void setConfidence(int slot, float c) {
+		confidence[slot] = c;
+	}
+
+	public int getFlags(int slot) {
+		return flags[slot];
+	}
+
+	public boolean hasFlags(int slot, int mask) {
+		return (flags[slot] & mask) == mask;
+	}
+
+	public void addFlags(int slot, int mask) {
+		int oldFlags = flags[slot];
+		flags[slot] |= mask;
+		relocate(slot, location[slot], oldFlags);
+		scheduleDirty = true;
+	}
+
+	public void removeFlags(int slot, int mask) {
+		int oldFlags = flags[slot];
+		flags[slot] &= ~mask;
+		relocate(slot, location[slot], oldFlags);
+		scheduleDirty = true;
+	}
+
+}
@@ -0,0 +1,174 @@
+package patchi.silk.foundation;
+
+/**
+ * Population history of one place at hourly, daily, monthly and yearly resolution.<br>
+ * Each resolution is a {@link TimeSeries} with its own retention. Daily samples are taken at midnight,
+ * and roll up into monthly and yearly samples holding the mean of the days in that month or year.
+ * Hourly samples are only kept if given a retention, as they cost a write per place every hour.
+ */
+public class PopulationHistory {
+
+	/** Default retention: no hourly samples, a year of days, twenty years of months and a century of years. */
+	public static final int DEFAULT_HOURS = 0;
+	public static final int DEFAULT_DAYS = 365;
+	public static final int DEFAULT_MONTHS = 240;
+	public static final int DEFAULT_YEARS = 100;
+
+	private final TimeSeries hourly;
+	private final TimeSeries daily;
+	private final TimeSeries monthly;
+	private final TimeSeries yearly;
+
+	/** Sum and count of the daily samples so far this month. */
+	private long monthTotal = 0;
+	private int monthDays = 0;
+
+	/** Sum and count of the daily samples so far this year. */
+	private long yearTotal = 0;
+	private int yearDays = 0;
+
+	/** Instantiates a history with the default retention. */
+	public PopulationHistory() {
+		this(DEFAULT_HOURS, DEFAULT_DAYS, DEFAULT_MONTHS, DEFAULT_YEARS);
+	}
+
+	/**
+	 * Instantiates a history.
+	 *
+	 * @param hours Hourly samples retained
+	 * @param days Daily samples retained
+	 * @param months Monthly samples retained
+	 * @param years Yearly samples retained
+	 */
+	public PopulationHistory(int hours, int days, int months, int years) {
+		hourly = new TimeSeries(hours);
+		daily = new TimeSeries(days);
+		monthly = new TimeSeries(months);
+		yearly = new TimeSeries(years);
+	}
+
+	/**
+	 * Returns whether hourly samples are kept.
+	 *
+	 * @return True if the hourly retention is above zero
+	 */
+	public boolean isHourly() {
+		return hourly.capacity() > 0;
+	}
+
+	/**
+	 * Records the population for one or more hours.
+	 *
+	 * @param population Population
+	 * @param hours Number of hours it held for
+	 */
+	public void recordHours(int population, long hours) {
+		hourly.add(population, hours);
+	}
+
+	/**
+	 * Records the population at the end of a day.
+	 *
+	 * @param population Population
+	 */
+	public void recordDay(int population) {
+
+		daily.add(population);
+		monthTotal += population;
+		monthDays++;
+		yearTotal += population;
+		yearDays++;
+
+	}
+
+	/** Rolls the days recorded this month into a monthly sample. Does nothing if no days were recorded. */
+	public void endMonth() {
+
+		if(monthDays == 0) return;
+
+		monthly.add((int) Math.floorDiv(monthTotal, monthDays));
+		monthTotal = 0;
+		monthDays = 0;
+
+	}
+
+	/** Rolls the days recorded this year into a yearly sample. Does nothing if no days were recorded. */
+	public void endYear() {
+
+		if(yearDays == 0) return;
+
+		yearly.add((int) Math.floorDiv(yearTotal, yearDays));
+		yearTotal = 0;
+		yearDays = 0;
+
+	}
+
+	public TimeSeries getHourly() {
+		return hourly;
+	}
+
+	public TimeSeries getDaily() {
+		return daily;
+	}
+
+	public TimeSeries getMonthly() {
+		return monthly;
+	}
+
+	public TimeSeries getYearly() {
+		return yearly;
+	}
+
+	//############################## SAVE / LOAD ##############################//
+
+	/**
+	 * Returns the monthly samples with the running month totals, as "total;days;v1,v2,...".
+	 *
+	 * @return Monthly history string
+	 */
+	public String getMonthlyString() {
+		return rollupString(monthTotal, monthDays, monthly);
+	}
+
+	/**
+	 * Returns the yearly samples with the running year totals, as "total;days;v1,v2,...".
+	 *
+	 * @return Yearly history string
+	 */
+	public String getYearlyString() {
+		return rollupString(yearTotal, yearDays, yearly);
+	}
+
+	private static String rollupString(long total, int n, TimeSeries series) {
+		return series.appendCSV(new StringBuilder().append(total).append(';').append(n).append(';')).toString();
+	}
+
+	/**
+	 * Restores the monthly samples and running month totals from {@link #getMonthlyString()}.
+	 *
+	 * @param in Monthly history string
+	 */
+	public void parseMonthlyString(String in) {
+
+		String[] init = in.split(";", -1);
+		monthTotal = Long.parseLong(init[0]);
+		monthDays = Integer.parseInt(init[1]);
+		monthly.parseCSV(init.length > 2 ? init[2] : "");
+
+	}
+
+	/**
+	 * Restores the yearly samples and running year totals from {@link #getYearlyString()}.
+	 *
+	 * @param in Yearly history string
+	 */
+	public void parseYearlyString(String in) {
+
+		String[] init = in.split(";", -1);
+		yearTotal = Long.parseLong(init[0]);
+		yearDays = Integer.parseInt(init[1]);
+		yearly.parseCSV(init.length > 2 ? init[2] : "");
+
+	}
+
+}
@@ -0,0 +1,113 @@
+package patchi.silk.foundation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source of every random number used by a world, derived from a single world seed.<br>
+ * Each subsystem, and each entity within it, gets its own independent stream. A stream depends only on the seed and its key,
+ * never on how many numbers other streams have drawn, so a world regenerates and simulates identically at any thread count.
+ */
+public class RandomStreams {
+
+	/** Subsystem key for the hour tick. */
+	public static final String TICK = "tick";
+
+	/** Subsystem key for people generation. */
+	public static final String PEOPLE = "people";
+
+	private final long seed;
+
+	/**
+	 * Instantiates the streams for a world seed.
+	 *
+	 * @param seed World seed
+	 */
+	public RandomStreams(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the world seed.
+	 *
+	 * @return Seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns a new stream for a subsystem. Repeated calls return streams producing the same sequence.
+	 *
+	 * @param subsystem Subsystem key
+	 * @return Stream
+	 */
+	public SplittableRandom stream(String subsystem) {
+		return new SplittableRandom(subsystemSeed(subsystem));
+	}
+
+	/**
+	 * Returns a new stream for one entity within a subsystem. Repeated calls return streams producing the same sequence.
+	 *
+	 * @param subsystem Subsystem key
+	 * @param entity Entity key, such as a slot or handle
+	 * @return Stream
+	 */
+	public SplittableRandom stream(String subsystem, long entity) {
+		return new SplittableRandom(derive(subsystemSeed(subsystem), entity));
+	}
+
+	/**
+	 * Returns the seed shared by every entity during one tick.
+	 *
+	 * @param tick Tick number
+	 * @return Tick seed, to be passed to {@link #derive(long, long)} with an entity key
+	 */
+	public long tickSeed(long tick) {
+		return derive(subsystemSeed(TICK), tick);
+	}
+
+	/**
+	 * Returns the seed of a subsystem.
+	 *
+	 * @param subsystem Subsystem key
+	 * @return Subsystem seed
+	 */
+	public long subsystemSeed(String subsystem) {
+		return derive(seed, subsystem.hashCode());
+	}
+
+	/**
+	 * Returns a 64-bit entity key for a string ID, such as a person's. Unlike {@link String#hashCode()}, every character feeds
+	 * all 64 bits, so distinct IDs sharing a 32-bit hash still get independent streams.
+	 *
+	 * @param id Entity ID
+	 * @return Entity key
+	 */
+	public static long key(String id) {
+
+		//64-bit FNV-1a over the UTF-16 characters, then mixed so nearby IDs land far apart
+		long h = 0xCBF29CE484222325L;
+		for(int k = 0; k < id.length(); k++) {
+			h = (h ^ id.charAt(k)) * 0x100000001B3L;
+		}
+		return derive(h, id.length());
+
+	}
+
+	/**
+	 * Derives a child seed from a parent seed and a key. Distinct keys give statistically independent children.
+	 *
+	 * @param parent Parent seed
+	 * @param key Child key
+	 * @return Child seed
+	 */
+	public static long derive(long parent, long key) {
+
+		long z = parent + (key + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+
+	}
+
+}
@@ -0,0 +1,199 @@
+package patchi.silk.foundation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import patchi.silk.entities.Road;
+import patchi.silk.entities.Settlement;
+
+/**
+ * Immutable adjacency of the road network, in compressed rows.<br>
+ * The edges leaving settlement h are at indices {@link #getStart(int)} to {@link #getEnd(int)}, exclusive, each with the settlement at
+ * the other end, the road's length and the road's handle. Every road appears once from each end. A settlement's edges are in road ID
+ * order, so picking one at random does not depend on load order.<br>
+ * Settlements are also ranked by ID, so searches can break ties without depending on load order.<br>
+ * The world builds a new graph whenever settlements or roads are added, so a graph once read can be used from any thread without locking.
+ */
+public class RoadGraph {
+
+	/** Number of settlements. */
+	private final int n;
+
+	private final int[] offsets;
+	private final int[] neighbours;
+	private final int[] lengths;
+	private final int[] roads;
+
+	/** Position of each settlement in ID order, and the settlement at each position. */
+	private final int[] rank;
+	private final int[] byRank;
+
+	/**
+	 * Takes a snapshot of the current settlements and roads of a world.
+	 *
+	 * @param world World to snapshot
+	 */
+	public RoadGraph(World world) {
+
+		n = world.getSettlementSet().size();
+		offsets = new int[n + 1];
+
+		List<Road> sorted = new ArrayList<>(world.getRoadSet());
+		sorted.sort(Comparator.comparing(Road::getID));
+
+		for(Road R : sorted) {
+			offsets[R.getConnectingAHandle() + 1]++;
+			offsets[R.getConnectingBHandle() + 1]++;
+		}
+		for(int h = 0; h < n; h++) offsets[h + 1] += offsets[h];
+
+		neighbours = new int[offsets[n]];
+		lengths = new int[offsets[n]];
+		roads = new int[offsets[n]];
+		int[] fill = new int[n];
+		System.arraycopy(offsets, 0, fill, 0, n);
+
+		for(Road R : sorted) {
+
+			int a = R.getConnectingAHandle();
+			int b = R.getConnectingBHandle();
+
+			add(fill[a]++, b, R);
+			add(fill[b]++, a, R);
+
+		}
+
+		List<Settlement> byID = new ArrayList<>(world.getSettlementSet());
+		byID.sort(Comparator.comparing(Settlement::getID));
+
+		rank = new int[n];
+		byRank = new int[n];
+		for(int r = 0; r < n; r++) {
+			byRank[r] = byID.get(r).getHandle();
+			rank[byRank[r]] = r;
+		}
+
+	}
+
+	private void add(int e, int to, Road R) {
+		neighbours[e] = to;
+		lengths[e] = R.getLength();
+		roads[e] = R.getHandle();
+	}
+
+	/**
+	 * Returns the number of settlements covered.
+	 *
+	 * @return Settlement count
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns the number of edges, twice the number of roads.
+	 *
+	 * @return Edge count
+	 */
+	public int getEdgeCount() {
+		return offsets[n];
+	}
+
+	/**
+	 * Returns the index of a settlement's first edge.
+	 *
+	 * @param h Settlement handle
+	 * @return Edge index
+	 */
+	public int getStart(int h) {
+		return offsets[h];
+	}
+
+	/**
+	 * Returns the index after a settlement's last edge.
+	 *
+	 * @param h Settlement handle
+	 * @return Edge index
+	 */
+	public int getEnd(int h) {
+		return offsets[h + 1];
+	}
+
+	/**
+	 * Returns the number of roads meeting at a settlement.
+	 *
+	 * @param h Settlement handle
+	 * @return Degree
+	 */
+	public int getDegree(int h) {
+		return offsets[h + 1] - offsets[h];
+	}
+
+	/**
+	 * Returns the settlement an edge leads to.
+	 *
+	 * @param e Edge index
+	 * @return Settlement handle
+	 */
+	public int getNeighbour(int e) {
+		return neighbours[e];
+	}
+
+	/**
+	 * Returns the length of an edge's road.
+	 *
+	 * @param e Edge index
+	 * @return Road length
+	 */
+	public int getLength(int e) {
+		return lengths[e];
+	}
+
+	/**
+	 * Returns an edge's road.
+	 *
+	 * @param e Edge index
+	 * @return Road handle
+	 */
+	public int getRoad(int e) {
+		return roads[e];
+	}
+
+	/**
+	 * Returns the edge between two settlements. Where several roads join them, the one with the lowest ID.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Edge index, or -1 if no road joins them
+	 */
+	public int findEdge(int from, int to) {
+
+		for(int e = offsets[from]; e < offsets[from + 1]; e++) {
+			if(neighbours[e] == to) return e;
+		}
+		return -1;
+
+	}
+
+	/**
+	 * Returns a settlement's position among all settlements in ID order.
+	 *
+	 * @param h Settlement handle
+	 * @return Rank, from 0 to {@link #size()}, exclusive
+	 */
+	public int getRank(int h) {
+		return rank[h];
+	}
+
+	/**
+	 * Returns the settlement at a position in ID order.
+	 *
+	 * @param r Rank, from 0 to {@link #size()}, exclusive
+	 * @return Settlement handle
+	 */
+	public int getSettlementAtRank(int r) {
+		return byRank[r];
+	}
+
+}
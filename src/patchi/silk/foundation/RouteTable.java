@@ -0,0 +1,201 @@
+package patchi.silk.foundation;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cached shortest routes between settlements.<br>
+ * For each destination the table holds the shortest distance from every settlement and the next settlement to head for.
+ * Route queries then walk next hops, costing O(path length). Rows are computed by a {@link PathFinder} the first time a destination is queried,
+ * or all at once by {@link #precompute()}, and are kept until the road set changes and the table is replaced.<br>
+ * The table also keeps the routes from each settlement to its nearest neighbours by road, found by a search that stops once they are
+ * settled. Those cost memory in proportion to the settlement count, where rows cost the square of it.<br>
+ * Safe for concurrent queries.
+ */
+public class RouteTable {
+
+	/** Distance reported between unconnected settlements. */
+	public static final int UNREACHABLE = PathFinder.UNREACHABLE;
+
+	/** Settlements found for each settlement by {@link #getNearestRoutes(int)}. */
+	public static final int NEAREST = 32;
+
+	/** Number of settlements. */
+	private final int n;
+
+	/** Search used to fill rows. */
+	private final PathFinder finder;
+
+	/** Shortest path tree towards each destination. Null until computed. */
+	private final AtomicReferenceArray<Row> rows;
+
+	/** Routes from each settlement to its nearest settlements. Null until computed. */
+	private final AtomicReferenceArray<int[][]> nearest;
+
+	/** Shortest path tree towards one destination. */
+	private static final class Row {
+
+		/** Distance from each settlement to the destination. */
+		final int[] distance;
+
+		/** Next settlement on the way to the destination from each settlement. -1 at the destination or if unreachable. */
+		final int[] next;
+
+		Row(int[] distance, int[] next) {
+			this.distance = distance;
+			this.next = next;
+		}
+
+	}
+
+	/**
+	 * Builds a table over the current settlements and roads of a world. Rows are not computed until needed.
+	 *
+	 * @param world World to route over
+	 */
+	public RouteTable(World world) {
+
+		finder = new PathFinder(world);
+		n = finder.size();
+		rows = new AtomicReferenceArray<>(n);
+		nearest = new AtomicReferenceArray<>(n);
+
+	}
+
+	/** Computes the row of every destination. Memory use grows with the square of the settlement count. */
+	public void precompute() {
+		for(int t = 0; t < n; t++) row(t);
+	}
+
+	/**
+	 * Returns the shortest distance between two settlements.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Distance, or {@link #UNREACHABLE}
+	 */
+	public int getDistance(int from, int to) {
+		return row(to).distance[from];
+	}
+
+	/**
+	 * Returns the next settlement on the shortest route between two settlements.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Handle of the next settlement, or -1 if already there or unreachable
+	 */
+	public int getNextHop(int from, int to) {
+		return row(to).next[from];
+	}
+
+	/**
+	 * Returns the shortest route between two settlements.
+	 *
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return Handles of every settlement on the route, including both ends. Null if unreachable.
+	 */
+	public int[] getRoute(int from, int to) {
+
+		Row R = row(to);
+		if(R.distance[from] == UNREACHABLE) return null;
+
+		int hops = 0;
+		for(int h = from; h != to; h = R.next[h]) hops++;
+
+		int[] route = new int[hops + 1];
+		int h = from;
+		for(int k = 0; k <= hops; k++) {
+			route[k] = h;
+			h = R.next[h];
+		}
+
+		return route;
+
+	}
+
+	/**
+	 * Returns the shortest routes from a settlement to the {@link #NEAREST} settlements nearest it by road, or every settlement it can
+	 * reach if there are fewer. Settlements the same distance away are taken in ID order, so the choice does not depend on load order.
+	 * Computed the first time a settlement is queried. The arrays are shared between callers and must not be modified.
+	 *
+	 * @param from Start settlement handle
+	 * @return Routes, nearest first, each holding every settlement on the route including both ends. Empty if no road leaves the settlement.
+	 */
+	public int[][] getNearestRoutes(int from) {
+
+		int[][] routes = nearest.get(from);
+
+		if(routes == null) {
+			routes = finder.findNearest(from, NEAREST);
+			if(!nearest.compareAndSet(from, null, routes)) routes = nearest.get(from);
+		}
+
+		return routes;
+
+	}
+
+	/**
+	 * Returns the shortest route between two settlements as IDs.
+	 *
+	 * @param world World the table was built over
+	 * @param from Start settlement handle
+	 * @param to Destination settlement handle
+	 * @return IDs of every settlement on the route, including both ends. Empty if unreachable.
+	 */
+	public ArrayList<String> getRouteIDs(World world, int from, int to) {
+
+		ArrayList<String> route = new ArrayList<String>();
+		int[] handles = getRoute(from, to);
+
+		if(handles != null) {
+			for(int h : handles) route.add(world.getSettlementByHandle(h).getID());
+		}
+
+		return route;
+
+	}
+
+	/**
+	 * Returns the search the table is filled from, which shares its snapshot of the road network.
+	 *
+	 * @return Path finder
+	 */
+	public PathFinder getPathFinder() {
+		return finder;
+	}
+
+	/**
+	 * Returns the number of settlements covered.
+	 *
+	 * @return Settlement count
+	 */
+	public int size() {
+		return n;
+	}
+
+	private Row row(int target) {
+
+		Row R = rows.get(target);
+
+		if(R == null) {
+			R = compute(target);
+			if(!rows.compareAndSet(target, null, R)) R = rows.get(target);
+		}
+
+		return R;
+
+	}
+
+	private Row compute(int target) {
+
+		int[] distance = new int[n];
+		int[] next = new int[n];
+		finder.shortestPathTree(target, distance, next);
+
+		return new Row(distance, next);
+
+	}
+
+}
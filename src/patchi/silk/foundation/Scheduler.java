@@ -0,0 +1,242 @@
+package patchi.silk.foundation;
+
+import java.util.Arrays;
+
+/**
+ * Event queue for the hour tick. Holds the people who have something to do at a known tick, so the tick only visits those people.<br>
+ * Departures and arrivals due within {@link #WHEEL_SIZE} hours are kept in a wheel of per-tick buckets, so scheduling is an append
+ * and each tick takes its whole bucket in one batch. Events further ahead wait in a binary min-heap keyed by tick then person slot.
+ * People waiting to make a travel decision are kept in a separate pool, drained at each midnight.
+ */
+public class Scheduler {
+
+	/** Hours ahead covered by the bucket wheel. A power of two, and longer than a day's departures plus the longest usual journey. */
+	public static final int WHEEL_SIZE = 256;
+
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	/** Heap of events beyond the wheel. Each packs the tick into the high 32 bits and the person slot into the low 32 bits. */
+	private long[] heap = new long[256];
+	private int heapSize = 0;
+
+	/** Slots due at each tick in the wheel, bucketed by tick modulo WHEEL_SIZE. The wheel covers the ticks after base, up to base + WHEEL_SIZE. */
+	private final int[][] buckets = new int[WHEEL_SIZE][];
+	private final int[] bucketSizes = new int[WHEEL_SIZE];
+
+	/** One bit per bucket, set while the bucket holds events. */
+	private final long[] occupied = new long[WHEEL_SIZE / 64];
+
+	private int wheelCount = 0;
+
+	/** Last tick collected. Every event up to it has been handed out. */
+	private long base = 0;
+
+	/** Slots waiting for the next midnight decision. */
+	private int[] decisions = new int[256];
+	private int decisionCount = 0;
+
+	/** Slots due this tick, filled by {@link #collect(long, boolean)}. */
+	private int[] work = new int[256];
+
+	/**
+	 * Schedules an event for a person.
+	 *
+	 * @param tick Tick the event falls due
+	 * @param slot Person slot
+	 */
+	public void schedule(long tick, int slot) {
+
+		if(tick > base && tick - base <= WHEEL_SIZE) {
+
+			int b = (int) (tick & WHEEL_MASK);
+			int[] bucket = buckets[b];
+			if(bucket == null) bucket = buckets[b] = new int[16];
+			else if(bucketSizes[b] == bucket.length) bucket = buckets[b] = Arrays.copyOf(bucket, bucket.length * 2);
+
+			bucket[bucketSizes[b]++] = slot;
+			occupied[b >>> 6] |= 1L << b;
+			wheelCount++;
+			return;
+
+		}
+
+		if(heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+
+		long key = (tick << 32) | slot;
+		int k = heapSize++;
+
+		//Sift up
+		while(k > 0) {
+			int parent = (k - 1) >>> 1;
+			if(heap[parent] <= key) break;
+			heap[k] = heap[parent];
+			k = parent;
+		}
+		heap[k] = key;
+
+	}
+
+	/**
+	 * Adds a person to the pool deciding at the next midnight.
+	 *
+	 * @param slot Person slot
+	 */
+	public void awaitDecision(int slot) {
+
+		if(decisionCount == decisions.length) decisions = Arrays.copyOf(decisions, decisionCount * 2);
+		decisions[decisionCount++] = slot;
+
+	}
+
+	/**
+	 * Gathers every person with something to do this tick into the work array, in a fixed order.
+	 * People deciding come first, in the order they joined the pool. Due events follow in the order they were scheduled.
+	 * The tick keeps both orders independent of thread count. Any events from the heap come last, in slot order.
+	 *
+	 * @param tick Current tick
+	 * @param midnight Whether the decision pool should be drained
+	 * @return Number of slots written to {@link #getWork()}
+	 */
+	public int collect(long tick, boolean midnight) {
+
+		int count = 0;
+
+		if(midnight) {
+			ensureWork(decisionCount);
+			System.arraycopy(decisions, 0, work, 0, decisionCount);
+			count = decisionCount;
+			decisionCount = 0;
+		}
+
+		//Whole buckets up to this tick. Only empty buckets are passed over, so the bit search never scans far
+		while(wheelCount > 0) {
+
+			long t = nextOccupied();
+			if(t > tick) break;
+
+			int b = (int) (t & WHEEL_MASK);
+			int size = bucketSizes[b];
+			int[] bucket = buckets[b];
+			ensureWork(count + size);
+			System.arraycopy(bucket, 0, work, count, size);
+			count += size;
+
+			bucketSizes[b] = 0;
+			occupied[b >>> 6] &= ~(1L << b);
+			wheelCount -= size;
+			base = t;
+
+		}
+
+		while(heapSize > 0 && (heap[0] >>> 32) <= tick) {
+			ensureWork(count + 1);
+			work[count++] = (int) poll();
+		}
+
+		base = Math.max(base, tick);
+
+		return count;
+
+	}
+
+	private long poll() {
+
+		long top = heap[0];
+		long last = heap[--heapSize];
+		int k = 0;
+
+		//Sift down
+		while(true) {
+			int child = 2 * k + 1;
+			if(child >= heapSize) break;
+			if(child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+			if(last <= heap[child]) break;
+			heap[k] = heap[child];
+			k = child;
+		}
+		if(heapSize > 0) heap[k] = last;
+
+		return top;
+
+	}
+
+	/**
+	 * Returns the earliest tick in the wheel with events. The wheel must not be empty.
+	 */
+	private long nextOccupied() {
+
+		long from = base + 1;
+		int start = (int) (from & WHEEL_MASK);
+
+		//Buckets are searched in tick order starting from base + 1, wrapping around the wheel. A 64-bucket word never straddles the wrap
+		for(int scanned = 0; scanned < WHEEL_SIZE + 64;) {
+			int b = (start + scanned) & WHEEL_MASK;
+			long bits = occupied[b >>> 6] >>> (b & 63);
+			if(bits != 0) return from + scanned + Long.numberOfTrailingZeros(bits);
+			scanned += 64 - (b & 63);
+		}
+
+		throw new IllegalStateException("Wheel holds " + wheelCount + " events but no bucket is occupied");
+
+	}
+
+	private void ensureWork(int size) {
+		if(size > work.length) work = Arrays.copyOf(work, Math.max(size, work.length * 2));
+	}
+
+	/**
+	 * Returns the work array filled by the last call to {@link #collect(long, boolean)}.
+	 *
+	 * @return Slots due this tick
+	 */
+	public int[] getWork() {
+		return work;
+	}
+
+	/**
+	 * Returns the tick of the earliest pending departure or arrival.
+	 *
+	 * @return Earliest event tick, or Long.MAX_VALUE if none are pending
+	 */
+	public long peekTick() {
+
+		long next = (heapSize == 0) ? Long.MAX_VALUE : heap[0] >>> 32;
+		return (wheelCount == 0) ? next : Math.min(next, nextOccupied());
+
+	}
+
+	/**
+	 * Returns the number of pending departures and arrivals.
+	 *
+	 * @return Event count
+	 */
+	public int getEventCount() {
+		return heapSize + wheelCount;
+	}
+
+	/**
+	 * Returns the number of people waiting for the next midnight decision.
+	 *
+	 * @return Decision pool size
+	 */
+	public int getDecisionCount() {
+		return decisionCount;
+	}
+
+	/**
+	 * Removes every pending event and decision.
+	 *
+	 * @param now Last completed tick. Events are expected from the tick after.
+	 */
+	public void clear(long now) {
+
+		heapSize = 0;
+		decisionCount = 0;
+		Arrays.fill(bucketSizes, 0);
+		Arrays.fill(occupied, 0);
+		wheelCount = 0;
+		base = now;
+
+	}
+
+}
@@ -0,0 +1,215 @@
+package patchi.silk.foundation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs long waits on a dedicated simulation thread, so the caller is free while the world advances.<br>
+ * While a wait runs, the world belongs to the simulation thread. Anything else that needs to change it is submitted as a command,
+ * which the simulation applies between ticks. Progress can be read, and the wait cancelled, from any thread.
+ */
+public class SimulationRunner {
+
+	/** Runner for the main world. */
+	private static final SimulationRunner RUNNER = new SimulationRunner(World.getMainWorld());
+
+	/** Shortest time between updates of the published clock text, in nanoseconds. */
+	private static final long PUBLISH_INTERVAL = 50_000_000L;
+
+	private final World world;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread T = new Thread(r, "simulation");
+		T.setDaemon(true);
+		return T;
+	});
+
+	/** Commands waiting for the next tick boundary. */
+	private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+	private volatile boolean running = false;
+	private volatile boolean cancelled = false;
+
+	private volatile long totalHours = 0;
+	private volatile long doneHours = 0;
+	private volatile long startNanos = 0;
+	private volatile long endNanos = 0;
+
+	/** Clock as of the last publish, for display while the clock itself is being advanced. */
+	private volatile String clockText;
+
+	/**
+	 * Instantiates a runner for a world.
+	 *
+	 * @param world World to advance
+	 */
+	public SimulationRunner(World world) {
+		this.world = world;
+		publishClock();
+	}
+
+	/**
+	 * Returns the runner for the main world.
+	 *
+	 * @return Main runner
+	 */
+	public static SimulationRunner getMainRunner() {
+		return RUNNER;
+	}
+
+	/**
+	 * Starts advancing the world in the background.
+	 *
+	 * @param hours Hours to advance
+	 * @throws IllegalStateException if a wait is already running
+	 */
+	public synchronized void startWait(long hours) {
+
+		if(running) throw new IllegalStateException("A wait is already running");
+
+		cancelled = false;
+		totalHours = hours;
+		doneHours = 0;
+		startNanos = System.nanoTime();
+		endNanos = 0;
+		running = true;
+
+		executor.execute(this::run);
+
+	}
+
+	private void run() {
+
+		long lastPublish = System.nanoTime();
+
+		try {
+
+			while(true) {
+
+				applyCommands();
+				if(cancelled || doneHours >= totalHours) break;
+
+				//Up to the next tick with work to do, skipping the idle hours before it. Cancellation and commands take effect at the next tick boundary
+				long step = Math.min(totalHours - doneHours, world.getHoursToNextWork());
+				world.advance(step);
+				doneHours += step;
+
+				long now = System.nanoTime();
+				if(now - lastPublish > PUBLISH_INTERVAL) {
+					publishClock();
+					lastPublish = now;
+				}
+
+			}
+
+		} finally {
+			publishClock();
+			endNanos = System.nanoTime();
+			running = false;
+			applyCommands();
+		}
+
+	}
+
+	/**
+	 * Queues a command to change the world. Applied at the next tick boundary while a wait runs, or straight away on the simulation thread otherwise.
+	 *
+	 * @param command Command
+	 */
+	public void submit(Runnable command) {
+
+		commands.add(command);
+		if(!running) executor.execute(this::applyCommands);
+
+	}
+
+	private void applyCommands() {
+
+		Runnable command;
+		while((command = commands.poll()) != null) command.run();
+
+	}
+
+	/**
+	 * Lengthens or shortens the running wait. It will not be shortened below the hours already advanced.
+	 *
+	 * @param hours Hours to add. Negative to shorten.
+	 */
+	public void extend(long hours) {
+		submit(() -> totalHours = Math.max(doneHours, totalHours + hours));
+	}
+
+	/** Stops the running wait at the next tick boundary. */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public long getTotalHours() {
+		return totalHours;
+	}
+
+	public long getDoneHours() {
+		return doneHours;
+	}
+
+	/**
+	 * Returns how far through the current or last wait the world is.
+	 *
+	 * @return Fraction between 0 and 1
+	 */
+	public double getProgress() {
+
+		long total = totalHours;
+		return (total == 0) ? 1 : Math.min(1, doneHours / (double) total);
+
+	}
+
+	/**
+	 * Returns the simulation speed over the current or last wait.
+	 *
+	 * @return Hours advanced per second of real time
+	 */
+	public double getHoursPerSecond() {
+
+		long end = running ? System.nanoTime() : endNanos;
+		double seconds = (end - startNanos) / 1e9;
+		return (seconds <= 0) ? 0 : doneHours / seconds;
+
+	}
+
+	/**
+	 * Returns the estimated real time left in the current wait, at the speed so far.
+	 *
+	 * @return Seconds, or -1 if no estimate can be made yet
+	 */
+	public double getEtaSeconds() {
+
+		double speed = getHoursPerSecond();
+		if(!running) return 0;
+		return (speed <= 0) ? -1 : (totalHours - doneHours) / speed;
+
+	}
+
+	/**
+	 * Returns the world date and time, as of shortly before now while a wait runs.
+	 *
+	 * @return Formatted date and time
+	 */
+	public String getClockText() {
+		return running ? clockText : world.getClock().getFormattedDate() + " " + world.getClock().getFormattedTime();
+	}
+
+	private void publishClock() {
+		clockText = world.getClock().getFormattedDate() + " " + world.getClock().getFormattedTime();
+	}
+
+}
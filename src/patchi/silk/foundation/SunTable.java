@@ -0,0 +1,78 @@
+package patchi.silk.foundation;
+
+/**
+ * Sunrise, sunset and day length for every day of the year, worked out once so reading them does no trigonometry.<br>
+ * The sun rises and sets symmetrically about 06:00 and 18:00, swinging furthest from them at midwinter and midsummer.
+ * A wider swing stands for a climate zone further from the equator.
+ */
+public class SunTable {
+
+	/** Table for the home region, where sunrise swings two hours either side of 06:00. */
+	public static final SunTable DEFAULT = new SunTable(2.0);
+
+	private final double swing;
+
+	private final double[] sunrise = new double[Time.DAYS_PER_YEAR];
+	private final double[] sunset = new double[Time.DAYS_PER_YEAR];
+	private final double[] dayLength = new double[Time.DAYS_PER_YEAR];
+
+	/**
+	 * Builds the table for a climate zone.
+	 *
+	 * @param swing Hours sunrise and sunset move either side of 06:00 and 18:00 over the year. Between 0 and 6.
+	 */
+	public SunTable(double swing) {
+
+		if(swing < 0 || swing > 6) throw new IllegalArgumentException("Swing must be between 0 and 6 hours: " + swing);
+
+		this.swing = swing;
+
+		for(int d = 0; d < Time.DAYS_PER_YEAR; d++) {
+			double c = Math.cos((Math.PI * (double) d) / 182.0 + (5.0 * Math.PI) / 91.0);
+			sunrise[d] = swing * c + 6.0;
+			sunset[d] = 18.0 - swing * c;
+			dayLength[d] = 12.0 - (2.0 * swing) * c;
+		}
+
+	}
+
+	/**
+	 * Returns the hours sunrise and sunset move over the year.
+	 *
+	 * @return Swing in hours
+	 */
+	public double getSwing() {
+		return swing;
+	}
+
+	/**
+	 * Returns the sunrise time in decimal hours.
+	 *
+	 * @param day Day of the year, starting at 0
+	 * @return Sunrise time
+	 */
+	public double getSunrise(int day) {
+		return sunrise[day];
+	}
+
+	/**
+	 * Returns the sunset time in decimal hours.
+	 *
+	 * @param day Day of the year, starting at 0
+	 * @return Sunset time
+	 */
+	public double getSunset(int day) {
+		return sunset[day];
+	}
+
+	/**
+	 * Returns the hours between sunrise and sunset.
+	 *
+	 * @param day Day of the year, starting at 0
+	 * @return Day length
+	 */
+	public double getDayLength(int day) {
+		return dayLength[day];
+	}
+
+}
@@ -0,0 +1,49 @@
+package patchi.silk.foundation;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link TickMetrics}. Times are in microseconds.<br>
+ * Departures and arrivals count whole journeys, however many roads they take. Passing through a settlement on the way is a leg change,
+ * so the roads entered are the departures plus the leg changes.
+ */
+public interface TickMetricsMXBean {
+
+	public boolean isEnabled();
+
+	public void setEnabled(boolean enabled);
+
+	/** Hour ticks run since the last reset. */
+	public long getTickCount();
+
+	/** Idle hours skipped by World.advance since the last reset. */
+	public long getSkippedHours();
+
+	/** Midnight travel decisions made. */
+	public long getDecisionCount();
+
+	/** Journeys started: people who set off from a settlement towards their destination. */
+	public long getDepartureCount();
+
+	/** Journeys ended: people who reached their final destination. */
+	public long getArrivalCount();
+
+	/** People who passed through a settlement onto the next leg of their journey, neither arriving nor departing. */
+	public long getLegCount();
+
+	/** Journeys started per simulated hour, counting skipped hours. Leg changes are not included. */
+	public double getDeparturesPerHour();
+
+	/** Journeys ended per simulated hour, counting skipped hours. Leg changes are not included. */
+	public double getArrivalsPerHour();
+
+	/** Mean time per tick of each phase, by phase name. */
+	public Map<String, Double> getMeanPhaseMicros();
+
+	/** 99th percentile time per tick of each phase, by phase name. The upper bound of its histogram bucket, at most 25% above the true value. */
+	public Map<String, Double> getP99PhaseMicros();
+
+	/** Clears every counter and histogram. */
+	public void reset();
+
+}
@@ -1,135 +1,238 @@
 package patchi.silk.foundation;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
- *	Tracks time. Capable of time math.
+ *	Tracks time. Capable of time math.<br>
+ *	Held as a single count of hours since the start of year 0. The calendar fields are worked out from it whenever it changes,
+ *	so reading them is free, and adding, subtracting and comparing times are single operations on the count.
+ *	Every year has 365 days.
  */
 
-public class Time {
-		
+public class Time implements Comparable<Time> {
+
 	/** Month names. */
 	private static final String[] MONTHS_LIST = { "January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December" };
-	
-	/** Set of months with 30 days. */
-	private static Set<Integer> THIRTY_DAYS = new HashSet<Integer>();
-		
+
+	/** Days in each month. */
+	private static final int[] MONTH_LENGTHS = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+	public static final int HOURS_PER_DAY = 24;
+	public static final int DAYS_PER_YEAR = 365;
+	public static final int HOURS_PER_YEAR = HOURS_PER_DAY * DAYS_PER_YEAR;
+
+	/** Rollover status codes returned when the time advances. Each implies the ones below it. */
+	public static final int NONE = 0;
+	public static final int DAY = 2;
+	public static final int MONTH = 3;
+	public static final int YEAR = 4;
+
+	/** Month of each day of the year. */
+	private static final byte[] MONTH_OF_DAY = new byte[DAYS_PER_YEAR];
+
+	/** Day of the year on which each month starts. */
+	private static final int[] MONTH_START = new int[12];
+
+	static {
+		int d = 0;
+		for(int m = 0; m < 12; m++) {
+			MONTH_START[m] = d;
+			for(int k = 0; k < MONTH_LENGTHS[m]; k++) MONTH_OF_DAY[d++] = (byte) m;
+		}
+	}
+
+	/** Hours since 00:00 on 1 January of year 0. */
+	private long epochHour;
+
 	/** Current year. */
 	private int year;
-	
+
 	/** Current month, starting at 0. */
 	private int month;
-	
+
 	/** Current day of the month, starting at 0. */
 	private int day;
-	
+
 	/**  Current hour, where 0 is 00:xx. */
 	private int hour;
-	
-	/** The current minute, where 0 is xx:00. */
-	private int minute;
-	
+
 	/**  Number of days since new year. */
 	private int daysCount;
-	
+
+	/** Sunrise and sunset by day of the year. */
+	private SunTable sun = SunTable.DEFAULT;
+
 	/**
-	 * Initialises a time object.
+	 * Initialises a time object at 07:00 on 22 September, 700.
 	 */
 	public Time() {
-		
-		year = 700;
-		month = 8;
-		day = 21;
-		
-		hour = 7;
-		minute = 0;
-		
-		THIRTY_DAYS.add(3);
-		THIRTY_DAYS.add(5);
-		THIRTY_DAYS.add(8);
-		THIRTY_DAYS.add(10);
-		
-		daysCount = 264;
-		
-	}
-	
+		this(toEpochHour(700, 8, 21, 7));
+	}
+
+	/**
+	 * Initialises a time object from the output of {@link #toString()}.
+	 *
+	 * @param in year,month,day,hour,minute,daysCount
+	 */
 	public Time(String in) {
-		
+
 		String[] data = in.split(",");
-		year = Integer.parseInt(data[0]);
-		month = Integer.parseInt(data[1]);
-		day = Integer.parseInt(data[2]);
-		hour = Integer.parseInt(data[3]);
-		minute = Integer.parseInt(data[4]);
-		daysCount = Integer.parseInt(data[5]);
-		
-		THIRTY_DAYS.add(3);
-		THIRTY_DAYS.add(5);
-		THIRTY_DAYS.add(8);
-		THIRTY_DAYS.add(10);
-		
-	}
-	
+		set(toEpochHour(Integer.parseInt(data[0]), Integer.parseInt(data[1]), Integer.parseInt(data[2]), Integer.parseInt(data[3])));
+
+	}
+
+	/**
+	 * Initialises a time object.
+	 *
+	 * @param epochHour Hours since 00:00 on 1 January of year 0
+	 */
+	public Time(long epochHour) {
+		set(epochHour);
+	}
+
+	/**
+	 * Returns the hour count for a calendar date and hour.
+	 *
+	 * @param year Year
+	 * @param month Month, starting at 0
+	 * @param day Day of the month, starting at 0
+	 * @param hour Hour
+	 * @return Hours since 00:00 on 1 January of year 0
+	 */
+	public static long toEpochHour(int year, int month, int day, int hour) {
+
+		if(month < 0 || month > 11) throw new IllegalArgumentException("Invalid month: " + month);
+		if(day < 0 || day >= MONTH_LENGTHS[month]) throw new IllegalArgumentException("Invalid day " + day + " of month " + month);
+		if(hour < 0 || hour >= HOURS_PER_DAY) throw new IllegalArgumentException("Invalid hour: " + hour);
+
+		return ((long) year * DAYS_PER_YEAR + MONTH_START[month] + day) * HOURS_PER_DAY + hour;
+
+	}
+
+	/**
+	 * Moves to another time, working out the calendar fields.
+	 *
+	 * @param epochHour Hours since 00:00 on 1 January of year 0
+	 */
+	private void set(long epochHour) {
+
+		this.epochHour = epochHour;
+
+		long days = Math.floorDiv(epochHour, HOURS_PER_DAY);
+		hour = (int) Math.floorMod(epochHour, HOURS_PER_DAY);
+		year = (int) Math.floorDiv(days, DAYS_PER_YEAR);
+		daysCount = (int) Math.floorMod(days, DAYS_PER_YEAR);
+		month = MONTH_OF_DAY[daysCount];
+		day = daysCount - MONTH_START[month];
+
+	}
+
+	/**
+	 * Moves to the same time as another clock. Anything holding this clock sees the change.
+	 *
+	 * @param other Time to copy
+	 */
+	public void setTime(Time other) {
+		set(other.epochHour);
+	}
+
 	/**
 	 * Advances the time by one hour.<br>
 	 * Handles any necessary changes to the day, month, or year.
+	 *
+	 * @return {@link #NONE}, or the largest of {@link #DAY}, {@link #MONTH} and {@link #YEAR} that began
 	 */
 	public int advanceHour() {
-		
-		/**
-		 * Status Codes:
-		 * 0 NONE
-		 * 1 HOUR
-		 * 2 DAY
-		 * 3 MONTH
-		 * 4 YEAR
-		 */
-		int status = 0;
-		
-		//Advance to nearest hour
-		hour++;
-		minute = 0;
-		
-		//advance day if appropriate
-		if(getHour() > 23) {
-			
-			hour = 0;
-			day ++;
-			daysCount ++;
-			status = 2;
-			
-			//Advance month if appropriate
-			if(month == 1 && day > 27) {
-				month ++;
-				day = 0;
-				status = 3;
-			}
-			else if(THIRTY_DAYS.contains(month) && day > 29) {
-				month ++;
-				day = 0;
-				status = 3;
-			}
-			else if(day > 30){
-				month++;
-				day = 0;
-				status = 3;
-			}
-			
-			//Advance year if appropriate
-			if(month > 11) {
-				year++;
-				month = 0;
-				daysCount = 0;
-				status = 4;
-			}
-			
-		}
-		
-		return status;
-		
+		return advanceHours(1);
 	}
-	
+
+	/**
+	 * Advances the time by any number of hours.
+	 *
+	 * @param hours Hours to advance. Must not be negative.
+	 * @return {@link #NONE}, or the largest of {@link #DAY}, {@link #MONTH} and {@link #YEAR} that began
+	 */
+	public int advanceHours(long hours) {
+
+		if(hours < 0) throw new IllegalArgumentException("Cannot advance by " + hours + " hours");
+
+		int oldYear = year;
+		int oldMonth = month;
+		long oldDay = Math.floorDiv(epochHour, HOURS_PER_DAY);
+
+		set(epochHour + hours);
+
+		if(year != oldYear) return YEAR;
+		if(month != oldMonth) return MONTH;
+		if(Math.floorDiv(epochHour, HOURS_PER_DAY) != oldDay) return DAY;
+		return NONE;
+
+	}
+
+	/**
+	 * Advances the time by several hours without leaving the current day.
+	 *
+	 * @param hours Hours to advance. Must not carry past 23:00.
+	 */
+	public void skipHours(int hours) {
+
+		if(hour + hours > 23) throw new IllegalArgumentException("Cannot skip " + hours + " hours from " + hour + ":00 without crossing midnight");
+
+		set(epochHour + hours);
+
+	}
+
+	/**
+	 * Returns a new time a number of hours from this one.
+	 *
+	 * @param hours Hours to add. May be negative.
+	 * @return New time
+	 */
+	public Time plusHours(long hours) {
+		return new Time(epochHour + hours);
+	}
+
+	/**
+	 * Returns the hours from this time until another.
+	 *
+	 * @param other Later time
+	 * @return Hours. Negative if the other time is earlier.
+	 */
+	public long hoursUntil(Time other) {
+		return other.epochHour - epochHour;
+	}
+
+	/**
+	 * Returns the number of hours since 00:00 on 1 January of year 0.
+	 *
+	 * @return Epoch hour
+	 */
+	public long getEpochHour() {
+		return epochHour;
+	}
+
+	/**
+	 * Returns the number of days since 1 January of year 0.
+	 *
+	 * @return Epoch day
+	 */
+	public long getEpochDay() {
+		return Math.floorDiv(epochHour, HOURS_PER_DAY);
+	}
+
+	@Override
+	public int compareTo(Time other) {
+		return Long.compare(epochHour, other.epochHour);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return (o instanceof Time) && ((Time) o).epochHour == epochHour;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(epochHour);
+	}
+
 	/**
 	 * Returns the current year.
 	 *
@@ -138,7 +241,7 @@ public class Time {
 	public int getYear() {
 		return year;
 	}
-	
+
 	/**
 	 * Returns the id of the current month.
 	 *
@@ -147,7 +250,7 @@ public class Time {
 	public int getMonthByID() {
 		return month;
 	}
-	
+
 	/**
 	 * Returns the current day.
 	 *
@@ -156,7 +259,7 @@ public class Time {
 	public int getDay() {
 		return day;
 	}
-	
+
 	/**
 	 * Returns the current hour.
 	 *
@@ -165,16 +268,16 @@ public class Time {
 	public int getHour() {
 		return hour;
 	}
-		
+
 	/**
-	 * Returns the current minute.
+	 * Returns the current minute. Time advances in whole hours, so this is always 0.
 	 *
 	 * @return Current minute
 	 */
 	public int getMinute() {
-		return minute;
-	}	
-		
+		return 0;
+	}
+
 	/**
 	 * Returns the name of the current month.
 	 *
@@ -183,7 +286,7 @@ public class Time {
 	public String getMonthByName() {
 		return MONTHS_LIST[month];
 	}
-	
+
 	/**
 	 * Returns a formatted date.
 	 *
@@ -192,33 +295,36 @@ public class Time {
 	public String getFormattedDate() {
 		return (day+1) + " " + MONTHS_LIST[month] + ", " + year;
 	}
-	
+
 	/**
 	 * Returns the formatted time.
 	 *
 	 * @return Formatted time
 	 */
 	public String getFormattedTime() {
-		
+
 		if(hour == 0){
-			return "12:" + String.format("%02d", minute) + " am";
+			return "12:00 am";
 		}
 		else if(hour == 12){
-			return "12:" + String.format("%02d", minute) + " pm";
+			return "12:00 pm";
 		}
 		else if(hour < 12){
-			return String.format("%02d", hour) + ":" + String.format("%02d", minute) + " am";
+			return String.format("%02d", hour) + ":00 am";
 		}
 		else {
-			return String.format("%02d", hour-12) + ":" + String.format("%02d", minute) + " pm";
+			return String.format("%02d", hour-12) + ":00 pm";
 		}
 	}
-		
+
+	/**
+	 * Returns the time in the save format read by {@link #Time(String)}.
+	 */
 	@Override
 	public String toString() {
-		return year +"," + month + "," + day + "," + hour + "," + minute + ","+ daysCount;
+		return year +"," + month + "," + day + "," + hour + "," + 0 + ","+ daysCount;
 	}
-	
+
 	/**
 	 * Returns the value of daysCount.
 	 *
@@ -227,22 +333,40 @@ public class Time {
 	public int getCurrentDayCount() {
 		return daysCount;
 	}
-	
+
+	/**
+	 * Returns the sun times used by this clock.
+	 *
+	 * @return Sun table
+	 */
+	public SunTable getSunTable() {
+		return sun;
+	}
+
+	/**
+	 * Sets the sun times used by this clock, for a different climate zone.
+	 *
+	 * @param sun Sun table
+	 */
+	public void setSunTable(SunTable sun) {
+		this.sun = sun;
+	}
+
 	/**
 	 * Returns the sunrise time in decimal hours.
 	 *
 	 * @return Sunrise time
 	 */
 	public double getSunriseTime() {
-		return 2.0 * Math.cos((Math.PI * (double) daysCount)/182.0 + (5.0 * Math.PI)/91.0) + 6.0;
+		return sun.getSunrise(daysCount);
 	}
 
 	public double getSunsetTime() {
-		return 18.0 - 2.0 * Math.cos((Math.PI * daysCount) / 182.0 + (5.0 * Math.PI) / 91.0);
+		return sun.getSunset(daysCount);
 	}
-	
+
 	public double getCurrentDayLength() {
-		return 12.0 - 4.0 * Math.cos((Math.PI * (double) daysCount) / 182.0 + (5.0 * Math.PI) / 91.0);
+		return sun.getDayLength(daysCount);
 	}
-		
+
 }
@@ -0,0 +1,170 @@
+package patchi.silk.foundation;
+
+/**
+ * Fixed-capacity ring buffer of int samples. Once full, each new sample overwrites the oldest.
+ */
+public class TimeSeries implements IntSeries {
+
+	private final int[] values;
+
+	/** Index the next sample is written to. */
+	private int head = 0;
+
+	private int size = 0;
+
+	/**
+	 * Instantiates an empty series.
+	 *
+	 * @param capacity Samples retained. A series with capacity 0 discards everything.
+	 */
+	public TimeSeries(int capacity) {
+		if(capacity < 0) throw new IllegalArgumentException("Negative capacity: " + capacity);
+		values = new int[capacity];
+	}
+
+	/**
+	 * Appends a sample.
+	 *
+	 * @param value Sample
+	 */
+	public void add(int value) {
+
+		if(values.length == 0) return;
+
+		values[head] = value;
+		head = (head + 1 == values.length) ? 0 : head + 1;
+		if(size < values.length) size++;
+
+	}
+
+	/**
+	 * Appends the same sample several times.
+	 *
+	 * @param value Sample
+	 * @param repeats Number of times to append it
+	 */
+	public void add(int value, long repeats) {
+
+		//Only the last capacity repeats can survive
+		int n = (int) Math.min(repeats, values.length);
+		for(int k = 0; k < n; k++) add(value);
+
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of samples retained once full.
+	 *
+	 * @return Capacity
+	 */
+	public int capacity() {
+		return values.length;
+	}
+
+	@Override
+	public int get(int i) {
+		if(i < 0 || i >= size) throw new IndexOutOfBoundsException("Index " + i + " of " + size);
+		return values[physical(i)];
+	}
+
+	/**
+	 * Returns the newest sample.
+	 *
+	 * @return Sample
+	 * @throws IllegalStateException if the series is empty
+	 */
+	public int getLatest() {
+		if(size == 0) throw new IllegalStateException("Series is empty");
+		return values[physical(size - 1)];
+	}
+
+	private int physical(int i) {
+		int p = head - size + i;
+		return (p < 0) ? p + values.length : p;
+	}
+
+	/**
+	 * Returns a view of part of the series, without copying. The view reads through to the buffer,
+	 * so its contents shift as samples are added.
+	 *
+	 * @param from First index, inclusive
+	 * @param to Last index, exclusive
+	 * @return View
+	 */
+	public IntSeries range(int from, int to) {
+
+		if(from < 0 || to > size || from > to) throw new IndexOutOfBoundsException("Range " + from + " to " + to + " of " + size);
+
+		return new IntSeries() {
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+
+			@Override
+			public int get(int i) {
+				if(i < 0 || i >= to - from) throw new IndexOutOfBoundsException("Index " + i + " of " + (to - from));
+				return TimeSeries.this.get(from + i);
+			}
+
+		};
+
+	}
+
+	/**
+	 * Returns a view of the newest samples, without copying.
+	 *
+	 * @param n Maximum number of samples
+	 * @return View of up to n samples
+	 */
+	public IntSeries latest(int n) {
+		return range(Math.max(0, size - n), size);
+	}
+
+	/** Discards every sample. */
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Appends the samples to a builder as comma separated values, oldest first.
+	 *
+	 * @param sb Builder
+	 * @return The builder
+	 */
+	public StringBuilder appendCSV(StringBuilder sb) {
+
+		for(int i = 0; i < size; i++) {
+			if(i > 0) sb.append(',');
+			sb.append(values[physical(i)]);
+		}
+		return sb;
+
+	}
+
+	/**
+	 * Replaces the samples with comma separated values, oldest first. Only the newest capacity values are kept.
+	 *
+	 * @param in Comma separated values. May be empty.
+	 */
+	public void parseCSV(String in) {
+
+		clear();
+		if(in.isEmpty()) return;
+
+		for(String str : in.split(",")) add(Integer.parseInt(str.trim()));
+
+	}
+
+	@Override
+	public String toString() {
+		return appendCSV(new StringBuilder()).toString();
+	}
+
+}
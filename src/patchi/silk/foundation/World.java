@@ -3,8 +3,14 @@ package patchi.silk.foundation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import patchi.silk.entities.Person;
 import patchi.silk.entities.Road;
@@ -27,11 +33,58 @@ public class World {
 	/** Full character dataset ArrayList. Automatically sorts when adding new character. */
 	private final TreeMap<String,Person> PEOPLE = new TreeMap<>();
 
-	/** Universal random number generator. */
-	private final Random RANDOM = new Random(System.nanoTime());
+	/** Read-only views of the above, handed out so that every change goes through the add methods. */
+	private final List<Settlement> SETTLEMENT_VIEW = Collections.unmodifiableList(SETTLEMENTS);
+	private final List<Road> ROAD_VIEW = Collections.unmodifiableList(ROADS);
+	private final SortedMap<String,Person> PEOPLE_VIEW = Collections.unmodifiableSortedMap(PEOPLE);
+
+	/** Columnar simulation state for every Person. */
+	private final PersonStore STORE = new PersonStore(this);
+
+	/** ID index over all of the above. Kept in step by the add methods. */
+	private final EntityRegistry REGISTRY = new EntityRegistry();
+
+	/** Universal random streams, all derived from one world seed. Tick streams depend only on the seed and the tick number, so skipped ticks draw nothing. */
+	private RandomStreams STREAMS = new RandomStreams(System.nanoTime());
+
+	/** Smallest number of people handed to one shard of a parallel tick. */
+	private static final int MIN_SHARD_SIZE = 4096;
+
+	/** Threads used by the hour tick. 1 runs it on the calling thread. */
+	private int tickThreads = 1;
+
+	/** Pool running parallel hour ticks. Null while ticking sequentially. */
+	private ForkJoinPool tickPool = null;
+
+	/** Movement buffers, one per shard. Half go to the decision pass and half to the event pass of a tick. */
+	private MovementBuffer[] MOVEMENTS = newMovementBuffers(1);
+
+	/** Road network adjacency. Null when settlements or roads have been added since it was built. */
+	private volatile RoadGraph GRAPH = null;
+
+	/** Cached shortest routes. Null when the road set has changed since it was built. */
+	private volatile RouteTable ROUTES = null;
+
+	/** Settlement count up to which every route is computed as soon as the table is built. */
+	private static final int PRECOMPUTE_ROUTES_LIMIT = 1024;
+
+	/** Per-phase tick timings and counters. Disabled until switched on. */
+	private final TickMetrics METRICS = new TickMetrics();
+
+	/** Pending decisions, departures and arrivals. */
+	private final Scheduler SCHEDULER = new Scheduler();
+
+	/** Number of hour ticks executed. Person travel state is timed against this. */
+	private long tick = 0;
+
+	/** Number of person decisions, departures and arrivals processed since the world was created. */
+	private long updateCount = 0;
 
 	/** Global clock. Synchronizes all game events */
-	private Time CLOCK = new Time();	
+	private final Time CLOCK = new Time();	
+
+	/** Departure hour tables for the clock's sun times. Replaced if the clock moves to another climate zone. */
+	private volatile DepartureSampler departures = new DepartureSampler(CLOCK.getSunTable());
 
 	/**
 	 * Instantiates a new world.
@@ -50,21 +103,100 @@ public class World {
 	}
 
 	/**
-	 * Gets the settlements set.
+	 * Gets the settlements set, in handle order. Read only; use {@link #addSettlement(Settlement)}.
 	 *
 	 * @return the settlements set
 	 */
-	public ArrayList<Settlement> getSettlementSet(){
-		return SETTLEMENTS;
+	public List<Settlement> getSettlementSet(){
+		return SETTLEMENT_VIEW;
 	}
 
 	/**
-	 * Gets the road set.
+	 * Gets the road set, in handle order. Read only; use {@link #addRoad(Road)}.
 	 *
 	 * @return the road set
 	 */
-	public ArrayList<Road> getRoadSet(){
-		return ROADS;
+	public List<Road> getRoadSet(){
+		return ROAD_VIEW;
+	}
+
+	/**
+	 * Gets the columnar person store.
+	 *
+	 * @return the person store
+	 */
+	public PersonStore getPersonStore() {
+		return STORE;
+	}
+
+	/**
+	 * Gets the event scheduler.
+	 *
+	 * @return the scheduler
+	 */
+	public Scheduler getScheduler() {
+		return SCHEDULER;
+	}
+
+	/**
+	 * Returns the head counts of every settlement and road.
+	 *
+	 * @return Census
+	 */
+	public Census getCensus() {
+		return STORE.getCensus();
+	}
+
+	/**
+	 * Returns the tick metrics. Switch them on with {@link TickMetrics#setEnabled(boolean)}.
+	 *
+	 * @return Tick metrics
+	 */
+	public TickMetrics getMetrics() {
+		return METRICS;
+	}
+
+	/**
+	 * Returns the departure hour sampler for the clock's current sun times.
+	 *
+	 * @return Departure sampler
+	 */
+	public DepartureSampler getDepartureSampler() {
+
+		DepartureSampler sampler = departures;
+		if(sampler.getSunTable() != CLOCK.getSunTable()) {
+			sampler = new DepartureSampler(CLOCK.getSunTable());
+			departures = sampler;
+		}
+		return sampler;
+
+	}
+
+	/**
+	 * Returns the number of hour ticks executed so far.
+	 *
+	 * @return Tick count
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Returns the number of person decisions, departures and arrivals processed so far.
+	 *
+	 * @return Update count
+	 */
+	public long getUpdateCount() {
+		return updateCount;
+	}
+
+	/**
+	 * Sets the tick counter. Used when restoring a saved world, before any people are loaded.
+	 *
+	 * @param tick Tick count
+	 */
+	public void setTick(long tick) {
+		this.tick = tick;
 	}
 
 	public Time getClock() {
@@ -73,12 +205,70 @@ public class World {
 
 
 	/**
-	 * Gets the character list.
+	 * Gets the character list, sorted by ID. Read only; use {@link #addPerson(Person)}.
 	 *
 	 * @return the character list
 	 */
-	public TreeMap<String,Person> getPersonSet() {
-		return PEOPLE;
+	public SortedMap<String,Person> getPersonSet() {
+		return PEOPLE_VIEW;
+	}
+
+	/**
+	 * Adds a settlement to the world and indexes it by ID. Its handle is its index in the settlement list.
+	 *
+	 * @param S Settlement
+	 * @throws IllegalArgumentException if a settlement with the same ID has already been added
+	 */
+	public void addSettlement(Settlement S) {
+		REGISTRY.register(S);
+		SETTLEMENTS.add(S);
+		GRAPH = null;
+		ROUTES = null;
+	}
+
+	/**
+	 * Adds a road to the world and indexes it by ID. Its handle is its index in the road list.
+	 *
+	 * @param R Road
+	 * @throws IllegalArgumentException if a road with the same ID has already been added
+	 */
+	public void addRoad(Road R) {
+		REGISTRY.register(R);
+		ROADS.add(R);
+		GRAPH = null;
+		ROUTES = null;
+	}
+
+	/**
+	 * Adds a person to the world and indexes them by ID.
+	 *
+	 * @param P Person
+	 * @throws IllegalArgumentException if a person with the same ID has already been added
+	 */
+	public void addPerson(Person P) {
+		REGISTRY.register(P);
+		PEOPLE.put(P.getID(), P);
+		STORE.place(P.getSlot());
+	}
+
+	/**
+	 * Adds every person in the given map to the world.
+	 *
+	 * @param people People keyed by ID
+	 */
+	public void addPeople(Map<String,Person> people) {
+		for(Person P : people.values()) addPerson(P);
+	}
+
+	/** Removes every settlement, road and person from the world. */
+	public void clear() {
+		SETTLEMENTS.clear();
+		ROADS.clear();
+		PEOPLE.clear();
+		STORE.clear();
+		REGISTRY.clear();
+		GRAPH = null;
+		ROUTES = null;
 	}
 
 	/**
@@ -88,13 +278,17 @@ public class World {
 	 * @return Settlement by ID
 	 */
 	public Settlement getSettlementByID(String id) {
-						
-		for(Settlement S : SETTLEMENTS) {
-						
-			if(S.getID().equals(id)) return S;
-		}
+		return REGISTRY.getSettlement(id);
+	}
 
-		throw new IllegalArgumentException();
+	/**
+	 * Returns a reference to the Settlement with the given handle.
+	 *
+	 * @param handle Settlement handle
+	 * @return Settlement by handle
+	 */
+	public Settlement getSettlementByHandle(int handle) {
+		return REGISTRY.getSettlement(handle);
 	}
 
 	/**
@@ -104,149 +298,258 @@ public class World {
 	 * @return Road by ID
 	 */
 	public Road getRoadByID(String id) {
-		for(Road R : ROADS) {
-			if(R.getID().equals(id)) return R;
-		}
+		return REGISTRY.getRoad(id);
+	}
 
-		throw new IllegalArgumentException();
+	/**
+	 * Returns a reference to the Road with the given handle.
+	 *
+	 * @param handle Road handle
+	 * @return Road by handle
+	 */
+	public Road getRoadByHandle(int handle) {
+		return REGISTRY.getRoad(handle);
 	}
 
+	/**
+	 * Returns a reference to the specified Person, if they exist. Otherwise, throws IllegalArgumentException.
+	 *
+	 * @param id Person String ID
+	 * @return Person by ID
+	 */
 	public Person getPersonByID(String id) { 
-		for(Person C : PEOPLE.values()) {
-			if(C.getID().equals(id)) return C;
-		}
+		return REGISTRY.getPerson(id);
+	}
+
+	/**
+	 * Rebuilds the road graph and route table after the settlements or roads have changed.
+	 * Call once loading or generation is complete, rather than waiting for the first query to build them.
+	 */
+	public void updateRoadConnections() {
+
+		RoadGraph graph = new RoadGraph(this);
+		GRAPH = graph;
+
+		RouteTable routes = new RouteTable(this);
+		if(routes.size() <= PRECOMPUTE_ROUTES_LIMIT) routes.precompute();
+		ROUTES = routes;
 
-		throw new IllegalArgumentException();
 	}
 
-	public void updateCharacterLocations() {
+	/**
+	 * Drops the road graph and route table, so both are rebuilt from the current roads on next use.
+	 * Called by roads whose length or ends change after they are added.
+	 */
+	public void invalidateRoadNetwork() {
+		GRAPH = null;
+		ROUTES = null;
+	}
 
-		for(Person P : PEOPLE.values()) {
-			
-			if(!P.isTravelling()) {
-				
-				Settlement S = getSettlementByID(P.getLocationID());
-				S.setPopulation(S.getCurrentPopulation() + 1);
-				
-			}
-			
+	/**
+	 * Returns the road network adjacency, building it if the settlements or roads have changed.
+	 *
+	 * @return the road graph
+	 */
+	public RoadGraph getRoadGraph() {
+
+		RoadGraph graph = GRAPH;
+
+		if(graph == null) {
+			graph = new RoadGraph(this);
+			GRAPH = graph;
 		}
 
+		return graph;
+
 	}
-	
-	public void updateRoadConnections() {
-		
-		for(Road R : ROADS) {
-			
-			Settlement A = getSettlementByID(R.getConnectingA());
-			Settlement B = getSettlementByID(R.getConnectingB());
-			
-			if(!A.getRoads().contains(R)) {
-				A.getRoads().add(R);
-			}
-			
-			if(!B.getRoads().contains(R)) {
-				B.getRoads().add(R);
-			}
-			
-			
+
+	/**
+	 * Sets the number of threads used by the hour tick. Results are identical for any thread count.
+	 *
+	 * @param threads Thread count. 1 runs the tick on the calling thread.
+	 */
+	public void setTickThreads(int threads) {
+
+		if(threads < 1) throw new IllegalArgumentException("Thread count must be positive: " + threads);
+
+		if(tickPool != null) tickPool.shutdown();
+		tickPool = (threads > 1) ? new ForkJoinPool(threads) : null;
+		tickThreads = threads;
+
+		MOVEMENTS = newMovementBuffers(threads);
+
+	}
+
+	/**
+	 * Creates the movement buffers for a tick thread count. Each pass of a tick gets half, and never fewer than one.
+	 *
+	 * @param threads Tick threads
+	 * @return Movement buffers
+	 */
+	private static MovementBuffer[] newMovementBuffers(int threads) {
+
+		MovementBuffer[] buffers = new MovementBuffer[(threads > 1) ? threads * 8 : 2];
+		for(int k = 0; k < buffers.length; k++) buffers[k] = new MovementBuffer();
+		return buffers;
+
+	}
+
+	public int getTickThreads() {
+		return tickThreads;
+	}
+
+	/**
+	 * Sets the world seed. Worlds generated and simulated after the same seed is set are identical, at any thread count.
+	 *
+	 * @param seed Seed
+	 */
+	public void setSeed(long seed) {
+		STREAMS = new RandomStreams(seed);
+	}
+
+	public long getSeed() {
+		return STREAMS.getSeed();
+	}
+
+	/**
+	 * Returns the route table, building it if the road set has changed.
+	 * Large worlds compute routes to each destination on first query; small worlds have every route computed up front.
+	 *
+	 * @return the route table
+	 */
+	public RouteTable getRouteTable() {
+
+		RouteTable routes = ROUTES;
+
+		if(routes == null) {
+			routes = new RouteTable(this);
+			ROUTES = routes;
 		}
-		
+
+		return routes;
+
 	}
 
+	/**
+	 * Moves the clock to a saved time. The clock instance is kept, so references held elsewhere stay current.
+	 *
+	 * @param in Time in the format written by {@link Time#toString()}
+	 */
 	public void setNewTime(String in) {
-		CLOCK = new Time(in);
+		CLOCK.setTime(new Time(in));
 	}
 	
-	public Random getRandom() {
-		return RANDOM;
+	/**
+	 * Returns the universal random streams.
+	 *
+	 * @return the random streams
+	 */
+	public RandomStreams getRandomStreams() {
+		return STREAMS;
 	}
 
 	public void printWorld() {
 
-		ArrayList<Road> roads = new ArrayList<Road>();
-
-		for(Settlement N : SETTLEMENTS) {
-			ArrayList<Road> L = N.getRoads();
-			for(Road E : L) {
-				if(!roads.contains(E)) roads.add(E);
-			}
-		}
-
-		for(Road E : roads) {
-			System.out.println(getSettlementByID(E.getConnectingA()).getName() + " - " + getSettlementByID(E.getConnectingB()).getName() + " : " + E.getLength());
+		for(Road E : ROADS) {
+			System.out.println(getSettlementByHandle(E.getConnectingAHandle()).getName() + " - " + getSettlementByHandle(E.getConnectingBHandle()).getName() + " : " + E.getLength());
 		}
 
 	}
 
+	/**
+	 * Returns the shortest route between two settlements, served from the route table.
+	 *
+	 * @param startID Start settlement ID
+	 * @param endID Destination settlement ID
+	 * @return IDs of every settlement on the route, including both ends. Empty if unreachable.
+	 */
 	public ArrayList<String> Dijkstra(String startID, String endID) {
 
+		return getRouteTable().getRouteIDs(this, getSettlementByID(startID).getHandle(), getSettlementByID(endID).getHandle());
 
-		ArrayList<String> route = new ArrayList<String>();
+	}
 
-		Settlement start = WORLD.getSettlementByID(startID);
-		Settlement end = WORLD.getSettlementByID(endID);
-		
-		for(Settlement S : SETTLEMENTS) S.purge();
+	/**
+	 * Finds the shortest route between two settlements in the background. Safe to call while the world is ticking.
+	 *
+	 * @param startID Start settlement ID
+	 * @param endID Destination settlement ID
+	 * @return Future completed with the IDs of every settlement on the route, including both ends. Empty if unreachable.
+	 */
+	public CompletableFuture<ArrayList<String>> findRouteAsync(String startID, String endID) {
 
-		start.setFinalValue(0);
-		start.setDone(true);
+		RouteTable routes = getRouteTable();
+		int from = getSettlementByID(startID).getHandle();
+		int to = getSettlementByID(endID).getHandle();
 
-		Settlement active = start;
+		return routes.getPathFinder().findPathAsync(from, to).thenApply(handles -> {
+			ArrayList<String> route = new ArrayList<String>();
+			if(handles != null) {
+				for(int h : handles) route.add(getSettlementByHandle(h).getID());
+			}
+			return route;
+		});
 
-		while(!end.getDone()) {
+	}
 
-			for(Road R : active.getRoads()) {
-			
-				String checkID;
-				if(R.getConnectingA() == active.getID()) checkID = R.getConnectingB();
-				else checkID = R.getConnectingA();
-				
-				Settlement check = WORLD.getSettlementByID(checkID);
-				if(!check.getDone()) {
-					int newWorking = R.getLength() + active.getFinalValue();
-					if(check.getWorkingValue() > newWorking) check.setWorkingValue(newWorking);
-				}
+	/**
+	 * Advances the world by the given number of hours. The final state is the same as calling {@link #doHourTick()} that many times.<br>
+	 * Runs full ticks only at midnight, for the daily and monthly trackers and travel decisions, and at ticks with a departure or arrival due.
+	 * The hours in between are skipped in a single step.
+	 *
+	 * @param hours Hours to advance
+	 */
+	public void advance(long hours) {
 
-			}
+		if(STORE.isScheduleDirty()) STORE.buildSchedule(SCHEDULER, tick);
 
-			for(Settlement S : SETTLEMENTS) {
-				if(!S.getDone()) {
-					if(active.getDone() || active.getWorkingValue() > S.getWorkingValue()) active = S;
-				}
+		while(hours > 0) {
+
+			//Ticks before the next midnight or event do no work
+			long idle = Math.min(hours, getHoursToNextWork() - 1);
+
+			if(idle > 0) {
+				CLOCK.skipHours((int) idle);
+				tick += idle;
+				hours -= idle;
+				if(METRICS.isEnabled()) METRICS.skip(idle);
+				trackHours(idle);
 			}
 
-			active.setFinalValue(active.getWorkingValue());
-			active.setDone(true);
+			if(hours > 0) {
+				doHourTick();
+				hours--;
+			}
 
 		}
 
-		for(Settlement S : SETTLEMENTS) System.out.println(S.getName() + " : " + S.getFinalValue());
+	}
+
+	/**
+	 * Returns the hours until the next tick with work to do: the next midnight, or the next departure or arrival due.
+	 * Advancing by up to this many hours skips every idle hour in one step.
+	 *
+	 * @return Hours, at least 1 and at most 24
+	 */
+	public long getHoursToNextWork() {
 
-		route.add(endID);
+		if(STORE.isScheduleDirty()) STORE.buildSchedule(SCHEDULER, tick);
 
-		Settlement reverse = end;
-		
-		while(!reverse.equals(start)) {
-			
-			for(Road R : reverse.getRoads()) {
-				
-				if((reverse.getFinalValue() - R.getLength()) == getSettlementByID(R.getConnectingA()).getFinalValue()) {
-					reverse = getSettlementByID(R.getConnectingA());
-					break;
-				}
-				else if((reverse.getFinalValue() - R.getLength()) == getSettlementByID(R.getConnectingB()).getFinalValue()) {
-					reverse = getSettlementByID(R.getConnectingB());
-					break;
-				}
-			}
-			
-			route.add(reverse.getID());
-		}
+		long nextMidnight = tick + 24 - CLOCK.getHour();
+		return Math.min(nextMidnight, SCHEDULER.peekTick()) - tick;
+
+	}
 
-		Collections.reverse(route);
+	/**
+	 * Records hourly population history, if it is kept.
+	 *
+	 * @param hours Hours the current populations held for
+	 */
+	private void trackHours(long hours) {
 
-		return route;
+		if(!Settlement.isHourlyHistory()) return;
+
+		for(Settlement S : SETTLEMENTS) S.writeHourlyPop(hours);
 
 	}
 
@@ -255,55 +558,122 @@ public class World {
 	 */
 	public void doHourTick() {
 		
+		final boolean timed = METRICS.isEnabled();
+		final long start = timed ? System.nanoTime() : 0;
+		long mark = start;
+
 		int timeStatus = 0;
 
 		timeStatus = CLOCK.advanceHour();
 
-		for(Person P : PEOPLE.values()) {
+		final long now = ++tick;
+		final boolean midnight = CLOCK.getHour() == 0;
+		final long tickSeed = STREAMS.tickSeed(now);
+
+		if(STORE.isScheduleDirty()) STORE.buildSchedule(SCHEDULER, now - 1);
+		if(timed) mark = METRICS.lap(TickMetrics.Phase.SCHEDULE, mark);
+
+		//Only people with a decision, departure or arrival due this tick are visited
+		final int decisions = midnight ? SCHEDULER.getDecisionCount() : 0;
+		final int n = SCHEDULER.collect(now, midnight);
+		final int[] work = SCHEDULER.getWork();
+		if(decisions > 0) STORE.groupBySettlement(work, decisions);
+		updateCount += n;
+		if(timed) mark = METRICS.lap(TickMetrics.Phase.COLLECT, mark);
+
+		//Decisions and events run as separate passes, each split into shards, so the two are timed apart
+		int buffers = processShards(work, 0, decisions, decisions, now, tickSeed, 0);
+		if(timed && midnight) mark = METRICS.lap(TickMetrics.Phase.DECIDE, mark);
+
+		buffers += processShards(work, decisions, n, decisions, now, tickSeed, buffers);
+		if(timed) mark = METRICS.lap(TickMetrics.Phase.PROCESS, mark);
+
+		//Merge in work order so settlements and the scheduler see the same sequence as a sequential tick
+		for(int k = 0; k < buffers; k++) MOVEMENTS[k].apply(STORE, SCHEDULER);
+		if(timed) mark = METRICS.lap(TickMetrics.Phase.APPLY, mark);
+
+		int departures = 0;
+		int arrivals = 0;
+		int legs = 0;
+
+		if(timed) {
+			for(int k = 0; k < buffers; k++) {
+				departures += MOVEMENTS[k].getDepartureCount();
+				arrivals += MOVEMENTS[k].getArrivalCount();
+				legs += MOVEMENTS[k].getLegCount();
+			}
+		}
+
+		//update population trackers
+		trackHours(1);
+
+		if(timeStatus >= Time.DAY) {
+
+			for(Settlement S : SETTLEMENTS) {
+
+				S.writeDailyPop();
 
-			//Travel decision making stage. Placeholder. Selects a random destination from all connected towns
-			if (P.getDoDecisionTree()) {
-				if(		CLOCK.getHour() == 0 
-						&& P.getDoTravel() 
-						&& !P.getPrepTravel() 
-						&& !P.isTravelling()) {
+				if(timeStatus >= Time.MONTH) {
 
-					P.setDepartureHours(P.generateDepartureHour(RANDOM));			
-					List<String> destinationPool = WORLD.getSettlementByID(P.getLocationID()).getConnectedSettlements();
-					P.setDestination(destinationPool.get(RANDOM.nextInt(destinationPool.size())));
-					P.setPrepTravel();
+					S.writeMonthlyPop();
 				}
-			}
 
-			//Characters advance
-			if(P.isTravelling()) P.advanceTravel();
+				if(timeStatus >= Time.YEAR) {
 
-			//Characters depart
-			if(P.getPrepTravel()) {
-				if(P.getDepartureHours() == 0) {
-					P.beginTravel();
-				} else {
-					P.decrementDepartureHours();
+					S.writeYearlyPop();
 				}
+
 			}
+
 		}
 
-		for(Settlement S : SETTLEMENTS) {
+		if(timed) {
+			METRICS.lap(TickMetrics.Phase.TRACKERS, mark);
+			METRICS.endTick(start, decisions, departures, arrivals, legs);
+		}
 
-			//update population trackers
-			if(timeStatus >= 2) {
+	}
 
-				S.writeDailyPop();
+	/**
+	 * Processes part of the work array, split into shards across the tick pool when there is enough of it.
+	 * Shard k records to buffer first + k, so applying the buffers in order follows the work order.
+	 *
+	 * @return Number of buffers written, from the first
+	 */
+	private int processShards(int[] work, int from, int to, int decisions, long now, long tickSeed, int first) {
 
-				if(timeStatus >= 3) {
+		final int n = to - from;
+		if(n <= 0) return 0;
 
-					S.writeMonthlyPop();
-				}
+		if(tickThreads <= 1 || n < 2 * MIN_SHARD_SIZE) {
+			STORE.process(work, from, to, decisions, now, tickSeed, MOVEMENTS[first]);
+			return 1;
+		}
 
-			}
+		int shardCount = Math.min(MOVEMENTS.length / 2, (n + MIN_SHARD_SIZE - 1) / MIN_SHARD_SIZE);
+		int shardSize = (n + shardCount - 1) / shardCount;
+		List<Callable<Void>> shards = new ArrayList<>(shardCount);
+
+		for(int k = 0; k < shardCount; k++) {
+			final int start = from + k * shardSize;
+			final int end = Math.min(to, start + shardSize);
+			final MovementBuffer out = MOVEMENTS[first + k];
+			shards.add(() -> {
+				STORE.process(work, start, end, decisions, now, tickSeed, out);
+				return null;
+			});
+		}
 
+		for(Future<Void> F : tickPool.invokeAll(shards)) {
+			try {
+				F.get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IllegalStateException("Hour tick shard failed", e);
+			}
 		}
 
+		return shardCount;
+
 	}
 
 }
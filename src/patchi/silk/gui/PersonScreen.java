@@ -2,7 +2,7 @@ package patchi.silk.gui;
 
 import java.awt.event.KeyEvent;
 import java.util.Arrays;
-import java.util.TreeMap;
+import java.util.SortedMap;
 
 import asciiPanel.AsciiPanel;
 import patchi.silk.entities.Person;
@@ -15,7 +15,7 @@ public class PersonScreen implements Screen {
 	private static int staticPage = 1;
 
 	private final World world = World.getMainWorld();
-	private final TreeMap<String,Person> PEOPLE = world.getPersonSet();
+	private final SortedMap<String,Person> PEOPLE = world.getPersonSet();
 
 	private int currentPage = 1;
 	private int totalPages = (int) Math.ceil(PEOPLE.size() / (float) MAX_PAGE_LENGTH);
@@ -14,4 +14,9 @@ public interface Screen {
     	return this;
     }
     
+    /** Whether the screen shows something changing in the background, and should be redrawn periodically. */
+    default public boolean needsRefresh() {
+    	return false;
+    }
+    
 }
@@ -1,7 +1,6 @@
 package patchi.silk.gui;
 
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
 import java.util.List;
 
 import asciiPanel.AsciiPanel;
@@ -13,7 +12,7 @@ public class SettlementScreen implements Screen {
 	private static final int MAX_PAGE_LENGTH = 26;
 
 	private final World world = World.getMainWorld();
-	private final ArrayList<Settlement> SETTLEMENTS = world.getSettlementSet();
+	private final List<Settlement> SETTLEMENTS = world.getSettlementSet();
 
 	private int currentPage = 1;
 	private int totalPages = (int) Math.ceil(SETTLEMENTS.size() / (float) MAX_PAGE_LENGTH);
@@ -3,6 +3,7 @@ package patchi.silk.gui;
 import java.awt.event.KeyEvent;
 
 import asciiPanel.AsciiPanel;
+import patchi.silk.entities.CharacterFlag;
 import patchi.silk.entities.Settlement;
 
 public class SettlementSummaryScreen implements Screen {
@@ -32,6 +33,13 @@ public class SettlementSummaryScreen implements Screen {
 		terminal.write("Population: " + S.getCurrentPopulation());
 		yCursor++;
 		terminal.setCursorPosition(xCursor, yCursor);
+		int female = S.getPopulation(CharacterFlag.FEMALE);
+		terminal.write("  " + (S.getCurrentPopulation() - female) + " male, " + female + " female");
+		yCursor++;
+		terminal.setCursorPosition(xCursor, yCursor);
+		terminal.write("  " + S.getPopulation(CharacterFlag.PREP_TRAVEL) + " preparing to travel");
+		yCursor++;
+		terminal.setCursorPosition(xCursor, yCursor);
 
 	}
 
@@ -4,6 +4,7 @@ import java.awt.event.KeyEvent;
 import java.util.List;
 import asciiPanel.AsciiPanel;
 import patchi.silk.entities.Settlement;
+import patchi.silk.foundation.IntSeries;
 import patchi.silk.foundation.World;
 import patchi.silk.gui.util.AsciiGraphMaker;
 import patchi.silk.gui.util.AsciiShapeUtil;
@@ -12,6 +13,9 @@ public class TestScreen implements Screen{
 	
 	public static final World WORLD = World.getMainWorld();
 	public static final List<Settlement> SETTLEMENTS = WORLD.getSettlementSet();
+
+	/** Most recent months graphed. */
+	private static final int MAX_POINTS = 60;
 	
 	public TestScreen() {
 
@@ -22,7 +26,7 @@ public class TestScreen implements Screen{
 
 		Settlement s = SETTLEMENTS.get(0);
 		System.out.println(s.getID());
-		List<Integer> data = s.getMonthlyPop();
+		IntSeries data = s.getMonthlyPop().latest(MAX_POINTS);
 		int xSize = data.size() + 4;
 		int ySize = 20;
 		
@@ -3,6 +3,7 @@ package patchi.silk.gui;
 import java.awt.event.KeyEvent;
 
 import asciiPanel.AsciiPanel;
+import patchi.silk.foundation.SimulationRunner;
 import patchi.silk.foundation.Time;
 import patchi.silk.foundation.World;
 
@@ -10,6 +11,7 @@ public class WaitScreen implements Screen {
 
 	final World WORLD = World.getMainWorld();
 	final Time CLOCK = WORLD.getClock();
+	final SimulationRunner RUNNER = SimulationRunner.getMainRunner();
 
 	private int cursorX;
 	private int cursorY;
@@ -22,6 +24,11 @@ public class WaitScreen implements Screen {
 		cursorX = 0;
 		cursorY = 0;
 
+		if(RUNNER.isRunning()) {
+			displayProgress(terminal);
+			return;
+		}
+
 		int waitDays = waitHours/24;
 		int waitYears = waitDays/365;
 		
@@ -44,9 +51,88 @@ public class WaitScreen implements Screen {
 
 	}
 
+	private void displayProgress(AsciiPanel terminal) {
+
+		terminal.setCursorPosition(cursorX,cursorY);
+		terminal.write(RUNNER.getClockText(), AsciiPanel.black, AsciiPanel.white);
+		cursorY+= 2;
+		terminal.setCursorPosition(cursorX, cursorY);
+		terminal.write("Waiting: " + RUNNER.getDoneHours() + " / " + RUNNER.getTotalHours() + " hours (" + (int) (100 * RUNNER.getProgress()) + "%)");
+		cursorY++;
+
+		//Progress bar
+		int width = 50;
+		int filled = (int) (width * RUNNER.getProgress());
+		terminal.setCursorPosition(cursorX, cursorY);
+		for(int x = 0; x < width; x++) {
+			terminal.write((x < filled) ? (char) 219 : (char) 176);
+		}
+		cursorY++;
+
+		terminal.setCursorPosition(cursorX, cursorY);
+		double eta = RUNNER.getEtaSeconds();
+		terminal.write(String.format("%.0f", RUNNER.getHoursPerSecond()) + " hours/s, " + ((eta < 0) ? "ETA unknown" : "ETA " + (long) eta / 60 + "m " + (long) eta % 60 + "s"));
+		cursorY+= 2;
+
+		terminal.setCursorPosition(cursorX, cursorY);
+		terminal.write("Use numpad 123789 to change time");
+		cursorY++;
+		terminal.setCursorPosition(cursorX, cursorY);
+		terminal.write("c - Cancel");
+
+	}
+
+	/** Handles input while a wait runs. Time changes are queued for the simulation thread. */
+	private Screen respondWhileRunning(KeyEvent key) {
+
+		switch(key.getKeyCode()) {
+
+		case(KeyEvent.VK_ESCAPE):
+		case(KeyEvent.VK_C):
+			RUNNER.cancel();
+		return this;
+
+		case(KeyEvent.VK_NUMPAD7):
+			RUNNER.extend(1);
+		return this;
+
+		case(KeyEvent.VK_NUMPAD1):
+			RUNNER.extend(-1);
+		return this;
+
+		case(KeyEvent.VK_NUMPAD8):
+			RUNNER.extend(24);
+		return this;
+
+		case(KeyEvent.VK_NUMPAD2):
+			RUNNER.extend(-24);
+		return this;
+
+		case(KeyEvent.VK_NUMPAD9):
+			RUNNER.extend(8760);
+		return this;
+
+		case(KeyEvent.VK_NUMPAD3):
+			RUNNER.extend(-8760);
+		return this;
+
+		default:
+			return this;
+
+		}
+
+	}
+
+	@Override
+	public boolean needsRefresh() {
+		return RUNNER.isRunning();
+	}
+
 	@Override
 	public Screen respondToUserInput(KeyEvent key) {
 
+		if(RUNNER.isRunning()) return respondWhileRunning(key);
+
 		switch(key.getKeyCode()) {
 
 		case(KeyEvent.VK_ESCAPE):
@@ -78,12 +164,8 @@ public class WaitScreen implements Screen {
 		return this;
 
 		case(KeyEvent.VK_W):
-			while(waitHours > 0) {
-
-				WORLD.doHourTick();
-				waitHours--;
-
-			}
+			if(waitHours > 0) RUNNER.startWait(waitHours);
+			waitHours = 0;
 		return this;
 
 		default:
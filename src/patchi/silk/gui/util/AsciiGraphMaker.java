@@ -1,9 +1,13 @@
 package patchi.silk.gui.util;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntToDoubleFunction;
 
 import asciiPanel.AsciiPanel;
 import patchi.patchiLib.math.MilliFormatter;
+import patchi.silk.foundation.IntSeries;
 
 public class AsciiGraphMaker {
 
@@ -25,14 +29,45 @@ public class AsciiGraphMaker {
 
 	public static <N extends Number> void drawGraph(AsciiPanel terminal, int xSize, int ySize, int xTL, int yTL, List<N> data, float lMin, float lMax) {
 
+		List<N> list = (data instanceof RandomAccess) ? data : new ArrayList<>(data);
+		drawGraph(terminal, xSize, ySize, xTL, yTL, list.size(), i -> list.get(i).floatValue(), lMin, lMax);
+
+	}
+
+	/**
+	 * Draws a graph of a series, read in place.
+	 */
+	public static void drawGraph(AsciiPanel terminal, int xSize, int ySize, int xTL, int yTL, IntSeries data) {
+
+		float lMax = Float.NEGATIVE_INFINITY;
+		float lMin = Float.POSITIVE_INFINITY;
+
+		for(int i = 0; i < data.size(); i++) {
+			lMax = Math.max(lMax, data.get(i));
+			lMin = Math.min(lMin, data.get(i));
+		}
+
+		drawGraph(terminal, xSize, ySize, xTL, yTL, data, lMin, lMax);
+
+	}
+
+	/**
+	 * Draws a graph of a series, read in place.
+	 */
+	public static void drawGraph(AsciiPanel terminal, int xSize, int ySize, int xTL, int yTL, IntSeries data, float lMin, float lMax) {
+		drawGraph(terminal, xSize, ySize, xTL, yTL, data.size(), data::get, lMin, lMax);
+	}
+
+	private static void drawGraph(AsciiPanel terminal, int xSize, int ySize, int xTL, int yTL, int count, IntToDoubleFunction data, float lMin, float lMax) {
+
 		int xCursor = 0;
 		int yCursor = 0;
 
 		int yRel = 0;
 
 		if(lMax == Float.NEGATIVE_INFINITY) {
-			for(N F : data) {
-				lMax = Math.max(lMax, F.floatValue());
+			for(int i = 0; i < count; i++) {
+				lMax = Math.max(lMax, (float) data.applyAsDouble(i));
 			} 
 		}
 
@@ -53,11 +88,13 @@ public class AsciiGraphMaker {
 		float p = Float.NaN;
 		int yOld = 0;
 
-		for(N F : data) {
+		for(int i = 0; i < count; i++) {
 			
+			float F = (float) data.applyAsDouble(i);
+
 			if(xCursor < xTL + xSize - 1) {
 
-				int y  = (int) Math.ceil((F.floatValue()-lMin)/yDiv);
+				int y  = (int) Math.ceil((F-lMin)/yDiv);
 
 				if(Float.isNaN(p)) {
 
@@ -119,7 +156,7 @@ public class AsciiGraphMaker {
 
 				}
 
-				p = F.floatValue();
+				p = F;
 				yOld = y;
 
 			}
@@ -0,0 +1,34 @@
+package patchi.silk.main;
+
+import java.io.IOException;
+
+import patchi.silk.save.WorldGen;
+
+/**
+ * Writes a synthetic world as settlements.csv and roads.csv, ready for {@link patchi.silk.save.NewGame#newGame(String)}
+ * or <code>HeadlessRunner new -world &lt;dir&gt;</code>.<br>
+ * Usage: <code>GenerateWorld &lt;dir&gt; &lt;settlements&gt; &lt;degree&gt; &lt;people&gt; [seed]</code>
+ */
+public class GenerateWorld {
+
+	private GenerateWorld() {}
+
+	/**
+	 * Generates and writes the world.
+	 *
+	 * @param args output directory, settlement count, average roads per settlement, total population and optional seed
+	 * @throws IOException if the files cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if(args.length < 4) throw new IllegalArgumentException("Usage: GenerateWorld <dir> <settlements> <degree> <people> [seed]");
+
+		long seed = (args.length > 4) ? Long.parseLong(args[4]) : 0;
+		WorldGen gen = new WorldGen(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]), seed);
+		gen.writeCSV(args[0]);
+
+		System.out.println("wrote " + gen.getSettlementCount() + " settlements, " + gen.getRoadCount() + " roads, " + gen.getPopulation() + " people to " + args[0]);
+
+	}
+
+}
@@ -0,0 +1,116 @@
+package patchi.silk.main;
+
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import patchi.silk.foundation.World;
+import patchi.silk.save.LoadGame;
+import patchi.silk.save.NewGame;
+import patchi.silk.save.SaveGame;
+import patchi.silk.save.WorldGen;
+
+/**
+ * Runs the simulation without a window, for servers and batch jobs. No AWT or Swing classes are loaded.<br>
+ * Usage: <code>HeadlessRunner [new|synthetic|&lt;save name&gt;] [-seed N] [-days N | -hours N] [-t N] [-save &lt;name&gt;]</code><br>
+ * A new game reads resources, or the CSV directory given by <code>-world &lt;dir&gt;</code>.
+ * A synthetic world is sized by <code>-settlements N -degree N -people N</code>.
+ * <code>-metrics</code> switches on tick metrics and prints them at the end. They are also published over JMX either way.
+ */
+public class HeadlessRunner {
+
+	private static final World WORLD = World.getMainWorld();
+
+	private HeadlessRunner() {}
+
+	/**
+	 * Runs the simulation and reports throughput.
+	 *
+	 * @param args world source, then options as described in the class comment
+	 */
+	public static void main(String[] args) {
+
+		String source = "new";
+		Long seed = null;
+		long hours = 24 * 30;
+		int threads = 1;
+		String saveAs = null;
+		String worldDir = "resources";
+		int settlements = 10_000;
+		int degree = 4;
+		long people = 1_000_000;
+		boolean metrics = false;
+
+		for(int k = 0; k < args.length; k++) {
+			switch(args[k]) {
+				case "-seed": seed = Long.parseLong(args[++k]); break;
+				case "-days": hours = 24 * Long.parseLong(args[++k]); break;
+				case "-hours": hours = Long.parseLong(args[++k]); break;
+				case "-t": threads = Integer.parseInt(args[++k]); break;
+				case "-save": saveAs = args[++k]; break;
+				case "-world": worldDir = args[++k]; break;
+				case "-settlements": settlements = Integer.parseInt(args[++k]); break;
+				case "-degree": degree = Integer.parseInt(args[++k]); break;
+				case "-people": people = Long.parseLong(args[++k]); break;
+				case "-metrics": metrics = true; break;
+				default:
+					if(args[k].startsWith("-")) throw new IllegalArgumentException("Unknown option " + args[k]);
+					source = args[k];
+			}
+		}
+
+		if(source.equals("new")) {
+			if(seed != null) WORLD.setSeed(seed);
+			NewGame.newGame(worldDir);
+		} else if(source.equals("synthetic")) {
+			new WorldGen(settlements, degree, people, (seed != null) ? seed : 0).generate();
+		} else {
+			try {
+				LoadGame.loadGame(source);
+			} catch (FileNotFoundException e) {
+				throw new IllegalArgumentException("Save " + source + " not found", e);
+			}
+			//Reseeds the rest of the run, from the loaded state
+			if(seed != null) WORLD.setSeed(seed);
+		}
+
+		WORLD.setTickThreads(threads);
+		WORLD.getMetrics().registerMBean();
+		WORLD.getMetrics().setEnabled(metrics);
+
+		System.out.println("world: " + source + ", seed " + WORLD.getSeed() + ", " + WORLD.getSettlementSet().size() + " settlements, "
+				+ WORLD.getRoadSet().size() + " roads, " + WORLD.getPersonSet().size() + " people");
+		System.out.println("running " + hours + " hours on " + threads + " thread(s)");
+
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) pool.resetPeakUsage();
+
+		long startTick = WORLD.getTick();
+		long startUpdates = WORLD.getUpdateCount();
+		long start = System.nanoTime();
+
+		WORLD.advance(hours);
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long ticks = WORLD.getTick() - startTick;
+		long updates = WORLD.getUpdateCount() - startUpdates;
+
+		long peakHeap = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP) peakHeap += pool.getPeakUsage().getUsed();
+		}
+
+		System.out.println("finished at " + WORLD.getClock().getFormattedDate() + " " + WORLD.getClock().getFormattedTime() + " in " + String.format("%.3f", seconds) + " s");
+		System.out.println("ticks/s: " + String.format("%.1f", ticks / seconds));
+		System.out.println("entity updates/s: " + String.format("%.1f", updates / seconds) + " (" + updates + " updates)");
+		System.out.println("peak heap: " + (peakHeap >> 20) + " MiB");
+		if(metrics) System.out.print(WORLD.getMetrics().snapshot());
+
+		if(saveAs != null) {
+			SaveGame.saveGame(saveAs);
+			System.out.println("saved as " + saveAs);
+		}
+
+	}
+
+}
@@ -3,7 +3,7 @@ package patchi.silk.main;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.SortedMap;
 
 import patchi.silk.entities.Person;
 import patchi.silk.entities.Settlement;
@@ -12,6 +12,7 @@ import patchi.silk.gui.Screen;
 import patchi.silk.gui.TitleScreen;
 
 import javax.swing.JFrame;
+import javax.swing.Timer;
 
 import asciiPanel.AsciiFont;
 import asciiPanel.AsciiPanel;
@@ -35,12 +36,17 @@ public class Main extends JFrame implements KeyListener{
 	public static final List<Settlement> SETTLEMENTS = WORLD.getSettlementSet();
 
 	/** References to character dataset and important Characters */
-	static final TreeMap<String,Person> PEOPLE = WORLD.getPersonSet();
+	static final SortedMap<String,Person> PEOPLE = WORLD.getPersonSet();
 
 	//UI Elements
 	private AsciiPanel terminal;
 	private Screen screen;
 
+	/** Redraws screens showing background work. */
+	private Timer refreshTimer;
+	private static final int REFRESH_INTERVAL = 100;
+	private boolean refreshing = false;
+
 
 
 	/**
@@ -50,6 +56,9 @@ public class Main extends JFrame implements KeyListener{
 	 */
 	public static void main(String[] args) {
 
+		//Tick metrics stay off until switched on over JMX
+		WORLD.getMetrics().registerMBean();
+
 		Main app = new Main();
 		app.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		app.setVisible(true);
@@ -67,6 +76,14 @@ public class Main extends JFrame implements KeyListener{
 		addKeyListener(this);
 		repaint();	
 
+		//One more redraw once the screen stops changing, to show its final state
+		refreshTimer = new Timer(REFRESH_INTERVAL, e -> {
+			boolean refresh = screen.needsRefresh();
+			if(refresh || refreshing) repaint();
+			refreshing = refresh;
+		});
+		refreshTimer.start();
+
 	}
 
 	public void repaint() {
@@ -5,8 +5,9 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.SortedMap;
 
 import patchi.silk.entities.CharacterFlag;
 import patchi.silk.entities.Person;
@@ -26,7 +27,7 @@ public class LoadGame {
 	private static final List<Road> ROADS = WORLD.getRoadSet();
 
 	/** Reference to character dataset*/
-	static final TreeMap<String,Person> PEOPLE = WORLD.getPersonSet();
+	static final SortedMap<String,Person> PEOPLE = WORLD.getPersonSet();
 
 	static String PATH; 
 
@@ -37,11 +38,10 @@ public class LoadGame {
 		PATH = "saves/" + saveName;
 
 		loadWorld();
-		loadChar();
 		loadSettlements();
 		loadRoads();
+		loadChar();
 
-		WORLD.updateCharacterLocations();
 		WORLD.updateRoadConnections();
 
 	}
@@ -52,6 +52,8 @@ public class LoadGame {
 
 		File[] charFiles = new File(charPath).listFiles();
 
+		Arrays.sort(charFiles);
+
 		for(File F : charFiles) {
 
 			try {
@@ -61,6 +63,7 @@ public class LoadGame {
 				String ID = br.readLine().split(":")[1];
 				Person P = new Person(ID);
 				String line;
+				String location = null;
 
 				while((line = br.readLine()) != null) {
 
@@ -77,7 +80,7 @@ public class LoadGame {
 						break;
 					}
 					case "LOC": {
-						P.setLocationID(data);
+						location = data;
 						break;
 					} 
 					case "DEST" : {
@@ -88,6 +91,10 @@ public class LoadGame {
 						break;
 
 					} 
+					case "ONWARD": {
+						P.setOnwardStops(data.split(";"));
+						break;
+					}
 					case "RDIST": {
 						P.setRemainingDistance(Integer.parseInt(data));
 						break;
@@ -109,7 +116,9 @@ public class LoadGame {
 
 				br.close();
 
-				PEOPLE.put(P.getID(),P);
+				//Location is resolved once flags are known, as travelling characters are located on a road
+				P.setLocationID(location);
+				WORLD.addPerson(P);
 
 			} catch (IOException e) {
 				e.printStackTrace();
@@ -124,6 +133,8 @@ public class LoadGame {
 
 		File[] settlementFiles = new File(settlementPath).listFiles();
 
+		Arrays.sort(settlementFiles);
+
 		for(File F : settlementFiles) {
 
 			try {
@@ -156,7 +167,13 @@ public class LoadGame {
 						}
 
 						case "MPOP": {
-							S.parseMonthlyPopString(data);												
+							S.parseMonthlyPopString(data);
+							break;
+						}
+
+						case "YPOP": {
+							S.parseYearlyPopString(data);
+							break;
 						}
 
 						}
@@ -168,7 +185,7 @@ public class LoadGame {
 
 				br.close();
 
-				SETTLEMENTS.add(S);
+				WORLD.addSettlement(S);
 
 			} catch (IOException e) {
 				e.printStackTrace();
@@ -184,6 +201,8 @@ public class LoadGame {
 
 		File[] roadFiles = new File(roadPath).listFiles();
 
+		Arrays.sort(roadFiles);
+
 		for(File F : roadFiles) {
 
 			try {
@@ -223,7 +242,7 @@ public class LoadGame {
 
 				br.close();
 
-				ROADS.add(R);
+				WORLD.addRoad(R);
 
 			} catch (IOException e) {
 				e.printStackTrace();
@@ -252,6 +271,14 @@ public class LoadGame {
 					WORLD.setNewTime(data);
 					break;
 				} 
+				case "SEED": {
+					WORLD.setSeed(Long.parseLong(data));
+					break;
+				}
+				case "TICK": {
+					WORLD.setTick(Long.parseLong(data));
+					break;
+				}
 
 				}
 			}
@@ -5,7 +5,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.SortedMap;
 
 import patchi.silk.entities.CharacterFlag;
 import patchi.silk.entities.Person;
@@ -30,41 +30,52 @@ public class NewGame {
 	/** Reference to global stock dataset */
 	
 	/** Reference to character dataset*/
-	static final TreeMap<String,Person> PEOPLE = WORLD.getPersonSet();
+	static final SortedMap<String,Person> PEOPLE = WORLD.getPersonSet();
 	
 	private NewGame() {};
 	
 	public static void newGame() {
 		
-		settlements();
-		roads();
-		WORLD.updateRoadConnections();
-		
-		PEOPLE.putAll(PeopleGen.generate());
-		WORLD.updateCharacterLocations();
+		newGame("resources");
 					
 		Person lawrence = new Person("0","Kraft","Lawrence","sw.yorenz");
 		lawrence.addFlags(CharacterFlag.DO_TRAVEL);
-		PEOPLE.put("0",lawrence);
+		WORLD.addPerson(lawrence);
 		Person holo = new Person("1","Holo","Wisewolf","sw.yorenz");
 		holo.addFlags(CharacterFlag.FEMALE, CharacterFlag.DO_TRAVEL);
-		PEOPLE.put("1", holo);
+		WORLD.addPerson(holo);
 					
 	}
 	
+	/**
+	 * Starts a new game from the settlements and roads files in a directory, such as one written by {@link WorldGen}.
+	 * Unlike {@link #newGame()}, no named characters are added.
+	 *
+	 * @param dir Directory holding settlements.csv and roads.csv
+	 */
+	public static void newGame(String dir) {
+		
+		settlements(dir + "/settlements.csv");
+		roads(dir + "/roads.csv");
+		WORLD.updateRoadConnections();
+		
+		WORLD.addPeople(PeopleGen.generate(dir + "/settlements.csv"));
+		
+	}
+	
 	/**
 	 * Load settlements.
 	 */
-	private static void settlements() {
+	private static void settlements(String path) {
 
 		try {
 			
-			BufferedReader br = new BufferedReader(new FileReader("resources/settlements.csv"));
+			BufferedReader br = new BufferedReader(new FileReader(path));
 			String line = br.readLine();
 
 			while (line != null) {
 
-				SETTLEMENTS.add(new Settlement(line.split(",")));
+				WORLD.addSettlement(new Settlement(line.split(",")));
 				line = br.readLine();
 			}
 
@@ -77,11 +88,11 @@ public class NewGame {
 	/**
 	 * Load roads.
 	 */
-	private static void roads() {
+	private static void roads(String path) {
 		
 		try {
 		
-			BufferedReader br = new BufferedReader(new FileReader("resources/roads.csv"));
+			BufferedReader br = new BufferedReader(new FileReader(path));
 			String line = br.readLine();
 			
 			while(line != null) {
@@ -93,7 +104,7 @@ public class NewGame {
 				R.setConnectingB(data[3]);
 				R.setLength(Integer.parseInt(data[4]));
 				
-				ROADS.add(R);
+				WORLD.addRoad(R);
 				line = br.readLine();
 				
 			}
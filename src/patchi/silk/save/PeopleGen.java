@@ -7,56 +7,49 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import patchi.silk.entities.CharacterFlag;
 import patchi.silk.entities.Person;
+import patchi.silk.foundation.RandomStreams;
+import patchi.silk.foundation.World;
 
 public class PeopleGen {
 
-	final static Random RANDOM = new Random();
+	/** Main World reference */
+	public static final World WORLD = World.getMainWorld();
+
+	/** Name pool files. */
+	static final String SURNAMES = "resources/snames.txt";
+	static final String MALE_NAMES = "resources/mnames.txt";
+	static final String FEMALE_NAMES = "resources/fnames.txt";
 
 	public static HashMap<String,Person> generate(){
+		return generate("resources/settlements.csv");
+	}
+
+	/**
+	 * Generates the residents of every settlement listed in a settlements file, as many as its population column gives.
+	 *
+	 * @param settlementsPath Settlements CSV file
+	 * @return Generated people by ID
+	 */
+	public static HashMap<String,Person> generate(String settlementsPath){
 
 		HashMap<String,Person> people = new HashMap<>();
+		
+		//Drawn from the world seed, so the same seed generates the same people
+		SplittableRandom RANDOM = WORLD.getRandomStreams().stream(RandomStreams.PEOPLE);
 
 		try {
 
-			List<String> snames = new ArrayList<String>();
-			List<String> mnames = new ArrayList<String>();
-			List<String> fnames = new ArrayList<String>();
+			List<String> snames = loadNames(SURNAMES);
+			List<String> mnames = loadNames(MALE_NAMES);
+			List<String> fnames = loadNames(FEMALE_NAMES);
 			List<String[]> settlements = new ArrayList<String[]>();
 
-			//load surnames
-			BufferedReader rSnames = new BufferedReader(new FileReader("resources/snames.txt"));
-
-			for(String line = rSnames.readLine(); line != null;){
-				snames.add(line);
-				line = rSnames.readLine();
-			}	
-
-			rSnames.close();
-
-			//load male names
-			BufferedReader rMnames = new BufferedReader(new FileReader("resources/mnames.txt"));
-
-			for(String line = rMnames.readLine(); line != null;){
-				mnames.add(line);
-				line = rMnames.readLine();
-			}	
-			rMnames.close();
-
-			//load female names
-			BufferedReader rFnames = new BufferedReader(new FileReader("resources/fnames.txt"));
-
-			for(String line = rFnames.readLine(); line != null;){
-				fnames.add(line);
-				line = rFnames.readLine();
-			}	
-			rFnames.close();
-
 			//load settlements
-			BufferedReader rSettlements = new BufferedReader(new FileReader("resources/settlements.csv"));
+			BufferedReader rSettlements = new BufferedReader(new FileReader(settlementsPath));
 
 			for(String line = rSettlements.readLine(); line != null;){
 				String[] split = line.split(",");				
@@ -72,30 +65,7 @@ public class PeopleGen {
 
 				for(int k = 1; k <= Integer.parseInt(s[1]); k++) {
 
-					Person P = new Person(Integer.toString(idCounter));
-					
-					boolean female = RANDOM.nextBoolean();
-					if(female) {
-						P.addFlags(CharacterFlag.FEMALE);
-					}
-
-					//generate first name
-					if(female) {
-						P.setFirstName(fnames.get(RANDOM.nextInt(fnames.size())));
-					}
-					else {
-						P.setFirstName(mnames.get(RANDOM.nextInt(mnames.size())));
-					}
-
-					//generate last name
-					P.setLastName(snames.get(RANDOM.nextInt(snames.size())));
-
-					//town ID
-					P.setLocationID((s[0]));
-					
-					if(RANDOM.nextBoolean()) P.addFlags(CharacterFlag.DO_TRAVEL);
-					P.addFlags(CharacterFlag.DO_DECISION_TREE);
-										
+					Person P = generatePerson(Integer.toString(idCounter), s[0], RANDOM, fnames, mnames, snames);
 					people.put(P.getID(),P);
 					idCounter++;
 
@@ -114,4 +84,67 @@ public class PeopleGen {
 		
 	}
 
+	/**
+	 * Generates one person with a random gender, name and travel flag.
+	 *
+	 * @param id Person ID
+	 * @param location Home settlement ID
+	 * @param RANDOM Random source
+	 * @param fnames Female first names
+	 * @param mnames Male first names
+	 * @param snames Surnames
+	 * @return Generated person, not yet added to the world
+	 */
+	static Person generatePerson(String id, String location, SplittableRandom RANDOM, List<String> fnames, List<String> mnames, List<String> snames) {
+
+		Person P = new Person(id);
+		
+		boolean female = RANDOM.nextBoolean();
+		if(female) {
+			P.addFlags(CharacterFlag.FEMALE);
+		}
+
+		//generate first name
+		if(female) {
+			P.setFirstName(fnames.get(RANDOM.nextInt(fnames.size())));
+		}
+		else {
+			P.setFirstName(mnames.get(RANDOM.nextInt(mnames.size())));
+		}
+
+		//generate last name
+		P.setLastName(snames.get(RANDOM.nextInt(snames.size())));
+
+		//town ID
+		P.setLocationID(location);
+		
+		if(RANDOM.nextBoolean()) P.addFlags(CharacterFlag.DO_TRAVEL);
+		P.addFlags(CharacterFlag.DO_DECISION_TREE);
+
+		return P;
+
+	}
+
+	/**
+	 * Reads a name pool, one name per line.
+	 *
+	 * @param path Name file
+	 * @return Names
+	 * @throws IOException if the file cannot be read
+	 */
+	static List<String> loadNames(String path) throws IOException {
+
+		List<String> names = new ArrayList<String>();
+		BufferedReader br = new BufferedReader(new FileReader(path));
+
+		for(String line = br.readLine(); line != null;){
+			names.add(line);
+			line = br.readLine();
+		}	
+		br.close();
+
+		return names;
+
+	}
+
 }
@@ -5,9 +5,8 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.SortedMap;
 
 import org.apache.commons.io.FileUtils;
 
@@ -29,7 +28,7 @@ public final class SaveGame {
 	private static final List<Road> ROADS = WORLD.getRoadSet();
 
 	/** Reference to character dataset*/
-	static final TreeMap<String,Person> PEOPLE = WORLD.getPersonSet();
+	static final SortedMap<String,Person> PEOPLE = WORLD.getPersonSet();
 
 	static private String saveName = new Date().toString();
 	static private String PATH;
@@ -78,6 +77,8 @@ public final class SaveGame {
 				} catch (NullPointerException e) {
 					bw.write("DEST:null\n");
 				}
+				String[] onward = P.getOnwardStops();
+				if(onward.length > 0) bw.write("ONWARD:" + String.join(";", onward) + "\n");
 				bw.write("RDIST:" + P.getRemainingDistance() + "\n");
 				bw.write("DEPHRS:" + P.getDepartureHours() + "\n");
 				bw.write("CONF:" + String.valueOf(P.getConfidence()) + "\n");
@@ -110,18 +111,9 @@ public final class SaveGame {
 				bw.write("ID:" + S.getID() + "\n");
 				bw.write("NAME:" + S.getName() + "\n");
 				
-				bw.write("DPOP:");
-				
-				Iterator<Integer> daily = S.getDailyPop().iterator();
-				while(daily.hasNext()) {
-					Integer I = daily.next();
-					bw.write(I.toString());
-					if(daily.hasNext()) {
-						bw.write(",");
-					}
-				}
-				bw.write("\n");
-				bw.write("MPOP:" + S.getMonthlyPopString());
+				bw.write("DPOP:" + S.getDailyPopString() + "\n");
+				bw.write("MPOP:" + S.getMonthlyPopString() + "\n");
+				bw.write("YPOP:" + S.getYearlyPopString());
 				
 				bw.close();
 
@@ -169,6 +161,8 @@ public final class SaveGame {
 			BufferedWriter bw = new BufferedWriter(new FileWriter(F));
 
 			bw.write("TIME:" + WORLD.getClock().toString() + "\n");
+			bw.write("SEED:" + WORLD.getSeed() + "\n");
+			bw.write("TICK:" + WORLD.getTick() + "\n");
 
 			bw.close();
 
@@ -0,0 +1,276 @@
+package patchi.silk.save;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import patchi.silk.entities.Person;
+import patchi.silk.entities.Road;
+import patchi.silk.entities.Settlement;
+import patchi.silk.foundation.RandomStreams;
+import patchi.silk.foundation.World;
+
+/**
+ * Generates synthetic worlds of any size, for scale testing.<br>
+ * Settlements are scattered over a jittered grid and joined into a single connected road network of the requested average degree.
+ * Populations follow a skewed distribution, so a few settlements are much larger than the rest.
+ * A world can be built straight into the main world, or written out as settlements.csv and roads.csv for {@link NewGame#newGame(String)}.
+ */
+public class WorldGen {
+
+	/** Main World reference */
+	public static final World WORLD = World.getMainWorld();
+
+	/** Subsystem key for generated worlds. */
+	public static final String WORLDGEN = "worldgen";
+
+	/** Spacing between grid cells, in road length units. */
+	private static final int CELL_SIZE = 100;
+
+	/** How many cells away extra roads may reach. */
+	private static final int ROAD_REACH = 2;
+
+	private static final String[] SUFFIXES = { "ton", "ford", "by", "ham", "wick", "stead", "burg", "mere" };
+
+	private final int settlementCount;
+	private final int roadCount;
+	private final long population;
+	private final long seed;
+
+	private final String[] ids;
+	private final String[] names;
+	private final int[] populations;
+
+	private final int[] roadA;
+	private final int[] roadB;
+	private final int[] roadLength;
+
+	/**
+	 * Lays out a synthetic world. Nothing is added to the main world until {@link #generate()} is called.
+	 *
+	 * @param settlementCount Number of settlements
+	 * @param degree Average number of roads per settlement. At least enough roads are made to connect every settlement.
+	 * @param population Total population, shared out between the settlements
+	 * @param seed Seed. The same arguments always give the same world.
+	 */
+	public WorldGen(int settlementCount, int degree, long population, long seed) {
+
+		if(settlementCount < 1) throw new IllegalArgumentException("At least one settlement is needed");
+
+		this.settlementCount = settlementCount;
+		this.population = population;
+		this.seed = seed;
+
+		RandomStreams streams = new RandomStreams(seed);
+
+		List<String> snames;
+		try {
+			snames = PeopleGen.loadNames(PeopleGen.SURNAMES);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read name pool", e);
+		}
+
+		ids = new String[settlementCount];
+		names = new String[settlementCount];
+		SplittableRandom random = streams.stream(WORLDGEN, 0);
+		for(int k = 0; k < settlementCount; k++) {
+			ids[k] = "gen.s" + k;
+			names[k] = snames.get(random.nextInt(snames.size())) + SUFFIXES[random.nextInt(SUFFIXES.length)];
+		}
+
+		populations = sharePopulation(streams.stream(WORLDGEN, 1));
+
+		//Jittered grid positions
+		int side = (int) Math.ceil(Math.sqrt(settlementCount));
+		double[] x = new double[settlementCount];
+		double[] y = new double[settlementCount];
+		random = streams.stream(WORLDGEN, 2);
+		for(int k = 0; k < settlementCount; k++) {
+			x[k] = (k % side + 0.2 + 0.6 * random.nextDouble()) * CELL_SIZE;
+			y[k] = (k / side + 0.2 + 0.6 * random.nextDouble()) * CELL_SIZE;
+		}
+
+		int target = Math.max(settlementCount - 1, (int) Math.min(Integer.MAX_VALUE, (long) settlementCount * degree / 2));
+		roadA = new int[target];
+		roadB = new int[target];
+		roadLength = new int[target];
+		HashSet<Long> joined = new HashSet<>();
+		int roads = 0;
+
+		//Spanning roads: each settlement joins its left neighbour, or the one above at the start of a row
+		for(int k = 1; k < settlementCount; k++) {
+			int other = (k % side == 0) ? k - side : k - 1;
+			roads = join(roads, k, other, x, y, joined);
+		}
+
+		//Extra roads between nearby settlements, up to the requested degree
+		random = streams.stream(WORLDGEN, 3);
+		long attempts = 20L * target;
+		while(roads < target && attempts-- > 0) {
+
+			int a = random.nextInt(settlementCount);
+			int dx = random.nextInt(2 * ROAD_REACH + 1) - ROAD_REACH;
+			int dy = random.nextInt(2 * ROAD_REACH + 1) - ROAD_REACH;
+			int ax = a % side;
+			int b = a + dy * side + dx;
+
+			if((dx == 0 && dy == 0) || ax + dx < 0 || ax + dx >= side || b < 0 || b >= settlementCount) continue;
+			if(joined.contains(key(a, b))) continue;
+
+			roads = join(roads, a, b, x, y, joined);
+
+		}
+
+		roadCount = roads;
+
+	}
+
+	private int join(int roads, int a, int b, double[] x, double[] y, HashSet<Long> joined) {
+
+		joined.add(key(a, b));
+		roadA[roads] = a;
+		roadB[roads] = b;
+		roadLength[roads] = Math.max(1, (int) Math.round(Math.hypot(x[a] - x[b], y[a] - y[b])));
+		return roads + 1;
+
+	}
+
+	private static long key(int a, int b) {
+		return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+	}
+
+	/**
+	 * Shares the total population between settlements by log-normal weights, so the shares sum exactly to the total.
+	 */
+	private int[] sharePopulation(SplittableRandom random) {
+
+		double[] weights = new double[settlementCount];
+		double total = 0;
+		for(int k = 0; k < settlementCount; k++) {
+			weights[k] = Math.exp(gaussian(random));
+			total += weights[k];
+		}
+
+		int[] shares = new int[settlementCount];
+		double running = 0;
+		long assigned = 0;
+		for(int k = 0; k < settlementCount; k++) {
+			running += weights[k];
+			long upTo = (k == settlementCount - 1) ? population : Math.round(population * (running / total));
+			shares[k] = (int) (upTo - assigned);
+			assigned = upTo;
+		}
+
+		return shares;
+
+	}
+
+	private static double gaussian(SplittableRandom random) {
+
+		//Box-Muller
+		return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+
+	}
+
+	/**
+	 * Builds the world into the main world, which should be empty. The world seed is set to the generator seed.
+	 */
+	public void generate() {
+
+		WORLD.setSeed(seed);
+
+		for(int k = 0; k < settlementCount; k++) {
+			Settlement S = new Settlement(ids[k]);
+			S.setName(names[k]);
+			WORLD.addSettlement(S);
+		}
+
+		for(int r = 0; r < roadCount; r++) {
+			Road R = new Road("gen.r" + r);
+			R.setName(names[roadA[r]] + " Road");
+			R.setConnectingA(ids[roadA[r]]);
+			R.setConnectingB(ids[roadB[r]]);
+			R.setLength(roadLength[r]);
+			WORLD.addRoad(R);
+		}
+
+		WORLD.updateRoadConnections();
+
+		try {
+
+			List<String> snames = PeopleGen.loadNames(PeopleGen.SURNAMES);
+			List<String> mnames = PeopleGen.loadNames(PeopleGen.MALE_NAMES);
+			List<String> fnames = PeopleGen.loadNames(PeopleGen.FEMALE_NAMES);
+			SplittableRandom RANDOM = WORLD.getRandomStreams().stream(RandomStreams.PEOPLE);
+
+			long idCounter = 0;
+			for(int k = 0; k < settlementCount; k++) {
+				for(int n = 0; n < populations[k]; n++) {
+					Person P = PeopleGen.generatePerson(Long.toString(idCounter++), ids[k], RANDOM, fnames, mnames, snames);
+					WORLD.addPerson(P);
+				}
+			}
+
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read name pools", e);
+		}
+
+	}
+
+	/**
+	 * Writes the world as settlements.csv and roads.csv, in the same format as the files in resources.
+	 * People are not written; {@link NewGame#newGame(String)} generates them from the settlement populations.
+	 *
+	 * @param dir Directory to write to. Created if missing.
+	 * @throws IOException if a file cannot be written
+	 */
+	public void writeCSV(String dir) throws IOException {
+
+		new File(dir).mkdirs();
+
+		try (BufferedWriter bw = new BufferedWriter(new FileWriter(new File(dir, "settlements.csv")))) {
+			for(int k = 0; k < settlementCount; k++) {
+				bw.write(ids[k] + "," + names[k] + "," + populations[k] + "\n");
+			}
+		}
+
+		try (BufferedWriter bw = new BufferedWriter(new FileWriter(new File(dir, "roads.csv")))) {
+			for(int r = 0; r < roadCount; r++) {
+				bw.write("gen.r" + r + "," + names[roadA[r]] + " Road," + ids[roadA[r]] + "," + ids[roadB[r]] + "," + roadLength[r] + "\n");
+			}
+		}
+
+	}
+
+	/**
+	 * Returns the number of settlements.
+	 *
+	 * @return Settlement count
+	 */
+	public int getSettlementCount() {
+		return settlementCount;
+	}
+
+	/**
+	 * Returns the number of roads laid out.
+	 *
+	 * @return Road count
+	 */
+	public int getRoadCount() {
+		return roadCount;
+	}
+
+	/**
+	 * Returns the total population.
+	 *
+	 * @return Population
+	 */
+	public long getPopulation() {
+		return population;
+	}
+
+}
@@ -0,0 +1,59 @@
+package patchi.silk.foundation;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import patchi.silk.foundation.TickMetrics.Phase;
+import patchi.silk.save.WorldGen;
+
+/**
+ * Runs midnight decisions on a large generated world, and checks their time and memory stay within bounds.<br>
+ * Choosing destinations must not search or cache routes across the whole network, or both grow with the square of the settlement count.
+ */
+public class DecisionScaleTest {
+
+	private static final World WORLD = World.getMainWorld();
+
+	private static final int SETTLEMENTS = 10_000;
+	private static final int DEGREE = 3;
+	private static final long PEOPLE = 200_000;
+
+	private static final int HOURS = 24 * 3;
+
+	/** Limits for the whole run. Well above a bounded search, well below one that touches every settlement. */
+	private static final long MAX_SECONDS = 10;
+	private static final long MAX_HEAP_GROWTH_MIB = 256;
+
+	@Test
+	public void decisionsStayLocal() {
+
+		WORLD.clear();
+		WORLD.setNewTime(new Time().toString());
+		WORLD.setTick(0);
+		new WorldGen(SETTLEMENTS, DEGREE, PEOPLE, 1).generate();
+		WORLD.getMetrics().reset();
+		WORLD.getMetrics().setEnabled(true);
+
+		long heapBefore = usedHeap();
+		long start = System.nanoTime();
+		WORLD.advance(HOURS);
+		long seconds = (System.nanoTime() - start) / 1_000_000_000L;
+		long heapGrowth = (usedHeap() - heapBefore) >> 20;
+
+		TickMetrics.Snapshot S = WORLD.getMetrics().snapshot();
+		String summary = seconds + " s, heap grew " + heapGrowth + " MiB, decisions " + (S.getTotalNanos(Phase.DECIDE) / 1_000_000) + " ms";
+
+		assertTrue("no one decided to travel", S.getDepartureCount() > 0);
+		assertTrue("too slow: " + summary, seconds < MAX_SECONDS);
+		assertTrue("too much memory: " + summary, heapGrowth < MAX_HEAP_GROWTH_MIB);
+
+	}
+
+	private static long usedHeap() {
+		Runtime R = Runtime.getRuntime();
+		System.gc();
+		return R.totalMemory() - R.freeMemory();
+	}
+
+}
@@ -0,0 +1,75 @@
+package patchi.silk.foundation;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import patchi.patchiLib.math.PatchiMath;
+
+/**
+ * Checks the table-driven departure sampler against the binomial draw it replaced, {@link PatchiMath#generateBinomialInt(int, double, Random)}.<br>
+ * Each case is a chi-squared test of homogeneity between the two methods' departure hour counts, at the 0.1% level.
+ */
+public class DepartureSamplerTest {
+
+	/** Days of the year checked: midwinter, equinoxes, midsummer and the ends of the year. */
+	private static final int[] DAYS = { 0, 80, 172, 264, 355, 364 };
+
+	/** Confidences checked, including values between buckets. */
+	private static final float[] CONFIDENCES = { 0.0f, 0.1f, 0.33f, 0.5f, 0.77f, 1.0f };
+
+	/** Draws per method per case. */
+	private static final int DRAWS = 200_000;
+
+	/** Normal quantile for the 0.1% significance level. */
+	private static final double Z = 3.0902;
+
+	@Test
+	public void matchesBinomialDraw() {
+
+		DepartureSampler sampler = new DepartureSampler(SunTable.DEFAULT);
+		SplittableRandom random = new SplittableRandom(1);
+		Random reference = new Random(1);
+
+		for(int day : DAYS) {
+			for(float confidence : CONFIDENCES) {
+
+				//The reference draws with the person's exact probability, so the bucketing error is included in the test
+				double p = DepartureSampler.probability(SunTable.DEFAULT.getSunrise(day), SunTable.DEFAULT.getDayLength(day), confidence);
+
+				long[] table = new long[DepartureSampler.TRIALS + 1];
+				long[] trials = new long[DepartureSampler.TRIALS + 1];
+				for(int n = 0; n < DRAWS; n++) {
+					table[sampler.sample(day, confidence, random)]++;
+					trials[PatchiMath.generateBinomialInt(DepartureSampler.TRIALS, p, reference)]++;
+				}
+
+				double chi2 = 0;
+				int df = -1;
+				for(int k = 0; k < table.length; k++) {
+					long total = table[k] + trials[k];
+					if(total < 10) continue;
+					double expected = total / 2.0;
+					chi2 += (table[k] - expected) * (table[k] - expected) / expected + (trials[k] - expected) * (trials[k] - expected) / expected;
+					df++;
+				}
+
+				double critical = critical(df);
+				assertTrue("day " + day + ", confidence " + confidence + ": chi2 " + String.format("%.1f", chi2) + " on " + df + " df, critical "
+						+ String.format("%.1f", critical), chi2 <= critical);
+
+			}
+		}
+
+	}
+
+	/** Wilson-Hilferty approximation to the chi-squared critical value. */
+	private static double critical(int df) {
+		double h = 2.0 / (9.0 * df);
+		return df * Math.pow(1 - h + Z * Math.sqrt(h), 3);
+	}
+
+}
@@ -0,0 +1,116 @@
+package patchi.silk.foundation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import patchi.silk.save.WorldGen;
+
+/**
+ * Checks that multi-leg journeys run end to end through {@link World#advance(long)}, with the same results at any thread count.<br>
+ * Generates a synthetic world and advances it hour by hour, following everyone whose journey is more than one road long until they stop,
+ * and checking they stop at the final destination they set out for. The run is repeated on several threads, and once more in a single
+ * long advance, and the final states compared.
+ */
+public class JourneyTest {
+
+	private static final World WORLD = World.getMainWorld();
+
+	private static final int SETTLEMENTS = 300;
+	private static final int DEGREE = 3;
+	private static final long PEOPLE = 30_000;
+	private static final long SEED = 1;
+
+	/** Hours simulated per run. */
+	private static final int HOURS = 24 * 10;
+
+	@Test
+	public void multiLegJourneysEndWhereTheyWereHeaded() {
+
+		long single = run(1, true);
+
+		assertEquals("final state differs between 1 and 4 threads", single, run(4, true));
+		assertEquals("final state differs between hourly and one advance", single, run(4, false));
+
+	}
+
+	/**
+	 * Generates the world and advances it.
+	 *
+	 * @param threads Tick threads
+	 * @param stepped Whether to advance an hour at a time, following journeys, or all at once
+	 * @return Digest of the final state of every person
+	 */
+	private static long run(int threads, boolean stepped) {
+
+		//Every run starts from the same clock
+		WORLD.clear();
+		WORLD.setNewTime(new Time().toString());
+		WORLD.setTick(0);
+		new WorldGen(SETTLEMENTS, DEGREE, PEOPLE, SEED).generate();
+		WORLD.setTickThreads(threads);
+		WORLD.getMetrics().reset();
+		WORLD.getMetrics().setEnabled(true);
+
+		PersonStore store = WORLD.getPersonStore();
+
+		if(stepped) {
+
+			//Final destination of each person on a multi-leg journey, or -1
+			int[] following = new int[store.size()];
+			Arrays.fill(following, -1);
+			int completed = 0;
+
+			for(int h = 0; h < HOURS; h++) {
+
+				WORLD.advance(1);
+
+				for(int slot = 0; slot < store.size(); slot++) {
+
+					boolean moving = (store.getFlags(slot) & (PersonStore.PREP_TRAVEL | PersonStore.TRAVELLING)) != 0;
+
+					if(following[slot] < 0) {
+						if(moving && store.getFinalDestination(slot) != store.getDestination(slot)) following[slot] = store.getFinalDestination(slot);
+					} else if(moving) {
+						assertEquals("slot " + slot + " changed final destination mid-journey", following[slot], store.getFinalDestination(slot));
+					} else {
+						assertEquals("slot " + slot + " stopped short", following[slot], store.getLocation(slot));
+						following[slot] = -1;
+						completed++;
+					}
+
+				}
+
+			}
+
+			assertTrue("no multi-leg journey was completed", completed > 0);
+
+		} else {
+			WORLD.advance(HOURS);
+		}
+
+		assertTrue("no one passed through a settlement", WORLD.getMetrics().getLegCount() > 0);
+
+		return digest(store);
+
+	}
+
+	private static long digest(PersonStore store) {
+
+		long h = 0;
+		for(int slot = 0; slot < store.size(); slot++) {
+			h = 31 * h + store.getLocation(slot);
+			h = 31 * h + store.getDestination(slot);
+			h = 31 * h + store.getFinalDestination(slot);
+			h = 31 * h + Arrays.hashCode(store.getOnwardStops(slot));
+			h = 31 * h + store.getRemainingDistance(slot);
+			h = 31 * h + store.getFlags(slot);
+		}
+		return h;
+
+	}
+
+}
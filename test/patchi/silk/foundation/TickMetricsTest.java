@@ -0,0 +1,77 @@
+package patchi.silk.foundation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import patchi.silk.foundation.TickMetrics.Phase;
+import patchi.silk.foundation.TickMetrics.Snapshot;
+
+/**
+ * Checks the phase histograms and the percentiles read from them.
+ */
+public class TickMetricsTest {
+
+	@Test
+	public void bucketsCoverEveryTimeInOrder() {
+
+		int buckets = new TickMetrics().snapshot().getHistogram(Phase.TICK).length;
+
+		assertEquals(0, Snapshot.getBucketUpperNanos(0));
+		for(int b = 1; b < buckets; b++) {
+			assertTrue("bucket " + b + " out of order", Snapshot.getBucketUpperNanos(b) > Snapshot.getBucketUpperNanos(b - 1));
+		}
+		assertEquals(Long.MAX_VALUE, Snapshot.getBucketUpperNanos(buckets - 1));
+
+	}
+
+	@Test
+	public void everyTimeLandsInItsBucket() {
+
+		TickMetrics metrics = new TickMetrics();
+		SplittableRandom random = new SplittableRandom(1);
+
+		for(int n = 0; n < 100_000; n++) {
+
+			//Spread over every power of two
+			long nanos = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+
+			metrics.reset();
+			metrics.record(Phase.PROCESS, nanos);
+			long[] counts = metrics.snapshot().getHistogram(Phase.PROCESS);
+
+			int b = 0;
+			while(counts[b] == 0) b++;
+
+			assertTrue(nanos + " above bucket " + b, nanos <= Snapshot.getBucketUpperNanos(b));
+			assertTrue(nanos + " below bucket " + b, b == 0 || nanos > Snapshot.getBucketUpperNanos(b - 1));
+
+		}
+
+	}
+
+	@Test
+	public void percentilesWithinAQuarter() {
+
+		TickMetrics metrics = new TickMetrics();
+		for(long nanos = 1; nanos <= 10_000; nanos++) metrics.record(Phase.PROCESS, nanos * 1000);
+		Snapshot S = metrics.snapshot();
+
+		double p50 = S.getPercentileNanos(Phase.PROCESS, 0.5);
+		double p99 = S.getPercentileNanos(Phase.PROCESS, 0.99);
+
+		assertTrue("p50 " + p50, p50 >= 5_000_000 && p50 <= 5_000_000 * 1.25);
+		assertTrue("p99 " + p99, p99 >= 9_900_000 && p99 <= 9_900_000 * 1.25);
+
+		for(long nanos = 0; nanos < 8; nanos++) {
+			TickMetrics exact = new TickMetrics();
+			exact.record(Phase.TICK, nanos);
+			assertEquals(nanos, exact.snapshot().getPercentileNanos(Phase.TICK, 0.99), 0);
+		}
+
+	}
+
+}
@@ -0,0 +1,39 @@
+package patchi.silk.foundation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import patchi.silk.save.InititialiseData;
+import patchi.silk.save.NewGame;
+
+/**
+ * Runs the standard new game world as the game itself does, without ever choosing a tick thread count.
+ */
+public class WorldTickTest {
+
+	private static final World WORLD = World.getMainWorld();
+
+	/** Days simulated, each way. Every one starts with a midnight decision pass. */
+	private static final int DAYS = 5;
+
+	@Test
+	public void runsDaysOnDefaultThreads() {
+
+		assertEquals("tick threads already chosen", 1, WORLD.getTickThreads());
+
+		InititialiseData.initialise();
+		WORLD.setSeed(1);
+		NewGame.newGame();
+
+		long start = WORLD.getTick();
+		for(int h = 0; h < 24 * DAYS; h++) WORLD.doHourTick();
+		WORLD.advance(24 * DAYS);
+
+		assertEquals(start + 48 * DAYS, WORLD.getTick());
+		assertTrue("no one was simulated", WORLD.getUpdateCount() > 0);
+
+	}
+
+}